@@ -1,4 +0,0 @@
-package com.warrantyhub.config;
-
-public class EmailConfig {
-}
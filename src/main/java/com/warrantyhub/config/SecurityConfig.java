@@ -2,7 +2,9 @@ package com.warrantyhub.config;
 
 import com.warrantyhub.security.*;
 import com.warrantyhub.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,7 +13,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -33,6 +34,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Autowired
     private CustomOAuth2UserService customOAuth2UserService;
 
@@ -45,6 +49,21 @@ public class SecurityConfig {
     @Autowired
     private UserService userService;
 
+    @Value("${app.security.bcrypt.strength}")
+    private int bcryptStrength;
+
+    @Value("${app.security.bcrypt.target-millis}")
+    private long bcryptTargetMillis;
+
+    @Value("${app.security.bcrypt.threads}")
+    private int bcryptThreads;
+
+    @Value("${app.security.bcrypt.queue-capacity}")
+    private int bcryptQueueCapacity;
+
+    @Value("${app.security.bcrypt.max-wait-ms}")
+    private long bcryptMaxWaitMs;
+
     private static final String[] PUBLIC_ENDPOINTS = {
             "/api/auth/login",
             "/api/auth/register",
@@ -83,6 +102,8 @@ public class SecurityConfig {
 
         // Add JWT filter before UsernamePasswordAuthenticationFilter
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Throttle credential endpoints before any token or password work happens
+        http.addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -92,9 +113,14 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * BCrypt on a dedicated bounded pool; a strength of 0 calibrates the cost to the target time at startup
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int strength = bcryptStrength > 0 ? bcryptStrength : OffloadingPasswordEncoder.calibrateStrength(bcryptTargetMillis);
+        int threads = bcryptThreads > 0 ? bcryptThreads : Runtime.getRuntime().availableProcessors();
+        return new OffloadingPasswordEncoder(strength, threads, bcryptQueueCapacity, bcryptMaxWaitMs, meterRegistry);
     }
 
     @Bean
@@ -18,6 +18,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -44,8 +45,11 @@ public class AuthController {
                     content = @Content(schema = @Schema(implementation = RegisterRequest.class))
             )
     )
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
-        return ResponseEntity.status(201).body(authService.register(request));
+    public ResponseEntity<AuthResponse> register(
+            @Valid @RequestBody RegisterRequest request,
+            @Parameter(description = "Stable identifier of the client device; each device keeps its own refresh session")
+            @RequestHeader(value = "X-Device-Id", required = false) String deviceId) {
+        return ResponseEntity.status(201).body(authService.register(request, deviceId));
     }
 
     @PostMapping("/login")
@@ -58,14 +62,18 @@ public class AuthController {
                     content = @Content(schema = @Schema(implementation = LoginRequest.class))
             )
     )
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public ResponseEntity<AuthResponse> login(
+            @Valid @RequestBody LoginRequest request,
+            @Parameter(description = "Stable identifier of the client device; each device keeps its own refresh session")
+            @RequestHeader(value = "X-Device-Id", required = false) String deviceId) {
+        return ResponseEntity.ok(authService.login(request, deviceId));
     }
 
     @PostMapping("/refresh-token")
     @Operation(
             summary = "Refresh token",
-            description = "Refreshes the access token using a valid refresh token",
+            description = "Refreshes the access token using a valid refresh token. The refresh token is rotated: " +
+                    "use the one in the response next time. Presenting an already-used refresh token revokes the session.",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Refresh token data",
                     required = true,
@@ -111,14 +119,20 @@ public class AuthController {
     @PostMapping("/logout")
     @Operation(
             summary = "Logout user",
-            description = "Logs out the current user and invalidates tokens (works for both JWT and OAuth2 sessions)",
+            description = "Logs out the current user and invalidates tokens (works for both JWT and OAuth2 sessions). " +
+                    "With X-Device-Id only that device's session ends, otherwise all sessions do.",
             security = {
                     @SecurityRequirement(name = "Bearer Authentication"),
                     @SecurityRequirement(name = "Google OAuth2")
             }
     )
-    public ResponseEntity<ApiResponse> logout() {
-        return ResponseEntity.ok(authService.logout());
+    public ResponseEntity<ApiResponse> logout(
+            @Parameter(description = "Device whose refresh session should end; omit to end all sessions")
+            @RequestHeader(value = "X-Device-Id", required = false) String deviceId,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        return ResponseEntity.ok(authService.logout(deviceId, accessToken));
     }
 
     @GetMapping("/profile")
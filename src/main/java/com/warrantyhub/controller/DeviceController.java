@@ -1,10 +1,14 @@
 package com.warrantyhub.controller;
 
+import com.warrantyhub.dto.request.DeviceFilterRequest;
 import com.warrantyhub.dto.request.DeviceRequest;
 import com.warrantyhub.dto.response.ApiResponse;
 import com.warrantyhub.dto.response.DeviceDTO;
 import com.warrantyhub.dto.response.DeviceListResponse;
+import com.warrantyhub.dto.response.DeviceSearchResponse;
 import com.warrantyhub.service.DeviceService;
+import com.warrantyhub.util.AppConstants;
+import com.warrantyhub.util.EntityTags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -13,7 +17,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -38,26 +44,102 @@ public class DeviceController {
     @GetMapping
     @Operation(
             summary = "Get all user devices",
-            description = "Retrieves a list of all devices belonging to the authenticated user"
+            description = "Retrieves the devices belonging to the authenticated user, optionally filtered and sorted. "
+                    + "Accounts with many devices can only sort by name, purchaseDate or warrantyEndDate"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "200",
             description = "Devices retrieved successfully",
             content = @Content(schema = @Schema(implementation = DeviceListResponse.class))
     )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Unknown sort key, or a sort key not available for this account's size",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<DeviceListResponse> getAllDevices(
+            @ParameterObject DeviceFilterRequest filter,
+            Authentication authentication) {
+        return ResponseEntity.ok(deviceService.getAllDevicesByUser(filter, authentication));
+    }
+
+    @GetMapping("/lookup")
+    @Operation(
+            summary = "Look up devices by serial number",
+            description = "Finds the authenticated user's devices with exactly this serial number. Case, spaces and "
+                    + "separators are ignored, so \"ab-123 x\" matches \"AB123X\"",
+            parameters = {
+                    @Parameter(name = "serialNumber", description = "Serial number", required = true, example = "SN123456789", in = ParameterIn.QUERY),
+                    @Parameter(name = "manufacturer", description = "Only devices from this manufacturer", example = "TechCorp", in = ParameterIn.QUERY)
+            }
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Devices with the serial number",
+            content = @Content(schema = @Schema(implementation = DeviceListResponse.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "No device with this serial number",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "401",
             description = "Unauthorized - Invalid or missing authentication token",
             content = @Content(schema = @Schema(implementation = ApiResponse.class))
     )
-    public ResponseEntity<DeviceListResponse> getAllDevices(Authentication authentication) {
-        return ResponseEntity.ok(deviceService.getAllDevicesByUser(authentication));
+    public ResponseEntity<DeviceListResponse> lookupBySerialNumber(
+            @RequestParam String serialNumber,
+            @RequestParam(required = false) String manufacturer,
+            Authentication authentication) {
+        return ResponseEntity.ok(deviceService.lookupBySerialNumber(serialNumber, manufacturer, authentication));
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search user devices",
+            description = "Finds the authenticated user's devices whose name, manufacturer, model or serial number "
+                    + "contain every word of the query, as a word prefix or (from three characters) anywhere in a word. "
+                    + "Results are ranked, best matches first",
+            parameters = {
+                    @Parameter(name = "q", description = "Search text", required = true, example = "sams tv", in = ParameterIn.QUERY),
+                    @Parameter(name = "page", description = "Zero-based page number", example = "0", in = ParameterIn.QUERY),
+                    @Parameter(name = "size", description = "Page size (1-100)", example = "20", in = ParameterIn.QUERY)
+            }
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Search results retrieved successfully",
+            content = @Content(schema = @Schema(implementation = DeviceSearchResponse.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid page or size",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<DeviceSearchResponse> searchDevices(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + AppConstants.DEFAULT_PAGE_SIZE) int size,
+            Authentication authentication) {
+        return ResponseEntity.ok(deviceService.searchDevices(query, page, size, authentication));
     }
 
     @GetMapping("/{id}")
     @Operation(
             summary = "Get device by ID",
-            description = "Retrieves a specific device by its ID if it belongs to the authenticated user",
+            description = "Retrieves a specific device by its ID if it belongs to the authenticated user. The ETag "
+                    + "header carries the device's version for a later If-Match",
             parameters = {
                     @Parameter(name = "id", description = "Device ID", required = true, example = "1", in = ParameterIn.PATH),
                     @Parameter(name = "Authorization", description = "Bearer token", required = true,
@@ -82,7 +164,8 @@ public class DeviceController {
     public ResponseEntity<DeviceDTO> getDeviceById(
             @PathVariable Long id,
             Authentication authentication) {
-        return ResponseEntity.ok(deviceService.getDeviceById(id, authentication));
+        DeviceDTO device = deviceService.getDeviceById(id, authentication);
+        return ResponseEntity.ok().eTag(EntityTags.format(device.getVersion())).body(device);
     }
 
     @PostMapping("/new") // Explicitly map to /api/devices/new
@@ -117,13 +200,15 @@ public class DeviceController {
     public ResponseEntity<DeviceDTO> createDevice(
             @Valid @RequestBody DeviceRequest deviceRequest,
             Authentication authentication) {
-        return ResponseEntity.ok(deviceService.createDevice(deviceRequest, authentication));
+        DeviceDTO device = deviceService.createDevice(deviceRequest, authentication);
+        return ResponseEntity.ok().eTag(EntityTags.format(device.getVersion())).body(device);
     }
 
     @PutMapping("/{id}")
     @Operation(
             summary = "Update a device",
-            description = "Updates an existing device if it belongs to the authenticated user",
+            description = "Updates an existing device if it belongs to the authenticated user. With If-Match the "
+                    + "update only applies if the device is still at that version; the response ETag is the new version",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Device update data",
                     required = true,
@@ -132,7 +217,9 @@ public class DeviceController {
             parameters = {
                     @Parameter(name = "id", description = "Device ID", required = true, example = "1", in = ParameterIn.PATH),
                     @Parameter(name = "Authorization", description = "Bearer token", required = true,
-                            schema = @Schema(type = "string"), in = ParameterIn.HEADER)
+                            schema = @Schema(type = "string"), in = ParameterIn.HEADER),
+                    @Parameter(name = HttpHeaders.IF_MATCH, description = "ETag of the version being updated",
+                            example = "\"3\"", in = ParameterIn.HEADER)
             }
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -155,11 +242,18 @@ public class DeviceController {
             description = "Unauthorized - Invalid or missing authentication token",
             content = @Content(schema = @Schema(implementation = ApiResponse.class))
     )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "412",
+            description = "The device was modified since the If-Match version",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
     public ResponseEntity<DeviceDTO> updateDevice(
             @PathVariable Long id,
             @Valid @RequestBody DeviceRequest deviceRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
-        return ResponseEntity.ok(deviceService.updateDevice(id, deviceRequest, authentication));
+        DeviceDTO device = deviceService.updateDevice(id, deviceRequest, EntityTags.parseIfMatch(ifMatch), authentication);
+        return ResponseEntity.ok().eTag(EntityTags.format(device.getVersion())).body(device);
     }
 
     @DeleteMapping("/{id}")
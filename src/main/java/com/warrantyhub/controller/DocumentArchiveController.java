@@ -0,0 +1,60 @@
+package com.warrantyhub.controller;
+
+import com.warrantyhub.dto.response.ApiResponse;
+import com.warrantyhub.service.DocumentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.security.SecurityRequirements;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/documents" )
+@Tag(name = "Document Management", description = "Operations for managing device documents")
+@SecurityRequirements({
+        @SecurityRequirement(name = "Bearer Authentication"),
+        @SecurityRequirement(name = "Google OAuth2")
+})
+public class DocumentArchiveController {
+
+    private final DocumentService documentService;
+
+    @Autowired
+    public DocumentArchiveController(DocumentService documentService) {
+        this.documentService = documentService;
+    }
+
+    @GetMapping("/archive")
+    @Operation(
+            summary = "Download all documents of the account",
+            description = "Streams a ZIP archive containing every document of every device, one folder per device"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Archive streamed successfully",
+            content = @Content(mediaType = "application/zip")
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<StreamingResponseBody> downloadAccountArchive(Authentication authentication) {
+        StreamingResponseBody body = documentService.exportAllDocuments(authentication);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"documents.zip\"")
+                .body(body);
+    }
+}
@@ -1,25 +1,31 @@
 package com.warrantyhub.controller;
 
+import com.warrantyhub.dto.request.DocumentUploadInitRequest;
 import com.warrantyhub.dto.response.ApiResponse;
 import com.warrantyhub.dto.response.DocumentDTO;
+import com.warrantyhub.dto.response.DocumentUploadDTO;
 import com.warrantyhub.service.DocumentService;
+import com.warrantyhub.service.DocumentUploadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 
-import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/devices/{deviceId}/documents" )
@@ -31,10 +37,12 @@ import java.io.IOException;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final DocumentUploadService documentUploadService;
 
     @Autowired
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, DocumentUploadService documentUploadService) {
         this.documentService = documentService;
+        this.documentUploadService = documentUploadService;
     }
 
     @PostMapping
@@ -71,6 +79,164 @@ public class DocumentController {
         return ResponseEntity.ok(documentService.uploadDocument(deviceId, file, authentication));
     }
 
+    @PostMapping("/uploads")
+    @Operation(
+            summary = "Start a resumable upload",
+            description = "Registers a large document upload and returns the upload id used to send its chunks"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Upload started successfully",
+            content = @Content(schema = @Schema(implementation = DocumentUploadDTO.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid upload request",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Device not found or doesn\"t belong to the user",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<DocumentUploadDTO> initiateUpload(
+            @Parameter(description = "ID of the device to attach the document to", required = true)
+            @PathVariable Long deviceId,
+            @Valid @RequestBody DocumentUploadInitRequest request,
+            Authentication authentication) {
+        return ResponseEntity.ok(documentUploadService.initiateUpload(deviceId, request, authentication));
+    }
+
+    @PutMapping(value = "/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(
+            summary = "Upload a chunk",
+            description = "Writes the raw request body at the given offset. Offsets must not skip past the received bytes"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Chunk stored successfully",
+            content = @Content(schema = @Schema(implementation = DocumentUploadDTO.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Offset or size does not match the upload",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Upload not found",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<DocumentUploadDTO> uploadChunk(
+            @Parameter(description = "ID of the device the upload belongs to", required = true)
+            @PathVariable Long deviceId,
+            @Parameter(description = "ID of the upload", required = true)
+            @PathVariable String uploadId,
+            @Parameter(description = "Byte offset of this chunk within the file", required = true)
+            @RequestParam("offset") long offset,
+            InputStream content,
+            Authentication authentication) {
+        return ResponseEntity.ok(documentUploadService.uploadChunk(deviceId, uploadId, offset, content, authentication));
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    @Operation(
+            summary = "Get upload status",
+            description = "Returns the number of bytes received so a client can resume after a dropped connection"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Upload status retrieved successfully",
+            content = @Content(schema = @Schema(implementation = DocumentUploadDTO.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Upload not found",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<DocumentUploadDTO> getUploadStatus(
+            @PathVariable Long deviceId,
+            @PathVariable String uploadId,
+            Authentication authentication) {
+        return ResponseEntity.ok(documentUploadService.getUploadStatus(deviceId, uploadId, authentication));
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    @Operation(
+            summary = "Complete a resumable upload",
+            description = "Verifies the checksum of the received file and attaches it to the device as a document"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Document uploaded successfully",
+            content = @Content(schema = @Schema(implementation = DocumentDTO.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Upload incomplete or checksum mismatch",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Upload not found",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<DocumentDTO> completeUpload(
+            @PathVariable Long deviceId,
+            @PathVariable String uploadId,
+            Authentication authentication) {
+        return ResponseEntity.ok(documentUploadService.completeUpload(deviceId, uploadId, authentication));
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    @Operation(
+            summary = "Abort a resumable upload",
+            description = "Discards an upload and the data received so far"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Upload aborted successfully",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<ApiResponse> abortUpload(
+            @PathVariable Long deviceId,
+            @PathVariable String uploadId,
+            Authentication authentication) {
+        return ResponseEntity.ok(documentUploadService.abortUpload(deviceId, uploadId, authentication));
+    }
+
+    @GetMapping("/archive")
+    @Operation(
+            summary = "Download all documents of a device",
+            description = "Streams a ZIP archive containing every document attached to the device"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Archive streamed successfully",
+            content = @Content(mediaType = "application/zip")
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "404",
+            description = "Device not found or doesn\"t belong to the user",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<StreamingResponseBody> downloadDeviceArchive(
+            @Parameter(description = "ID of the device whose documents are archived", required = true)
+            @PathVariable Long deviceId,
+            Authentication authentication) {
+        StreamingResponseBody body = documentService.exportDeviceDocuments(deviceId, authentication);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"device-" + deviceId + "-documents.zip\"")
+                .body(body);
+    }
+
     @GetMapping("/{documentId}")
     @Operation(
             summary = "Download a document",
@@ -95,17 +261,18 @@ public class DocumentController {
             @Parameter(description = "ID of the document to download", required = true)
             @PathVariable Long documentId,
             Authentication authentication) {
-        Resource resource = documentService.downloadDocument(documentId, authentication);
+        DocumentService.DocumentDownload download = documentService.downloadDocument(documentId, authentication);
+        Resource resource = download.getResource();
 
-        String contentType = null;
+        MediaType contentType;
         try {
-            contentType = resource.getURL().openConnection().getContentType();
-        } catch (IOException ex) {
-            contentType = "application/octet-stream";
+            contentType = MediaType.parseMediaType(download.getContentType());
+        } catch (InvalidMediaTypeException ex) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM;
         }
 
         return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
+                .contentType(contentType)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
                 .body(resource);
     }
@@ -3,7 +3,9 @@ package com.warrantyhub.controller;
 import com.warrantyhub.dto.request.MaintenanceRecordRequest;
 import com.warrantyhub.dto.response.ApiResponse;
 import com.warrantyhub.dto.response.DeviceDTO;
+import com.warrantyhub.dto.response.MaintenanceRecordDTO;
 import com.warrantyhub.service.MaintenanceService;
+import com.warrantyhub.util.EntityTags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,6 +14,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -69,7 +72,9 @@ public class MaintenanceController {
     @PutMapping("/{recordId}")
     @Operation(
             summary = "Update a maintenance record",
-            description = "Updates an existing maintenance record for a specific device"
+            description = "Updates an existing maintenance record for a specific device. With If-Match the update "
+                    + "only applies if the record is still at that version; record versions are listed in the "
+                    + "device's maintenanceHistory, and the response's ETag is the updated record's version"
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "200",
@@ -91,14 +96,33 @@ public class MaintenanceController {
             description = "Device or maintenance record not found or doesn\"t belong to the user",
             content = @Content(schema = @Schema(implementation = ApiResponse.class))
     )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "412",
+            description = "The maintenance record was modified since the If-Match version",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
     public ResponseEntity<DeviceDTO> updateMaintenanceRecord(
             @Parameter(description = "ID of the device that owns the maintenance record", required = true)
             @PathVariable Long deviceId,
             @Parameter(description = "ID of the maintenance record to update", required = true)
             @PathVariable Long recordId,
             @Valid @RequestBody MaintenanceRecordRequest request,
+            @Parameter(description = "Version of the maintenance record being updated, e.g. \"1\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
-        return ResponseEntity.ok(maintenanceService.updateMaintenanceRecord(deviceId, recordId, request, authentication));
+        DeviceDTO device = maintenanceService.updateMaintenanceRecord(
+                deviceId, recordId, request, EntityTags.parseIfMatch(ifMatch), authentication);
+
+        // The tag is the record's version, which is what If-Match on this endpoint is compared with
+        Long recordVersion = device.getMaintenanceHistory().stream()
+                .filter(record -> recordId.toString().equals(record.getId()))
+                .map(MaintenanceRecordDTO::getVersion)
+                .findFirst()
+                .orElse(null);
+        if (recordVersion == null) {
+            return ResponseEntity.ok(device);
+        }
+        return ResponseEntity.ok().eTag(EntityTags.format(recordVersion)).body(device);
     }
 
     @DeleteMapping("/{recordId}")
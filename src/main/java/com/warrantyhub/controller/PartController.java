@@ -0,0 +1,57 @@
+package com.warrantyhub.controller;
+
+import com.warrantyhub.dto.response.ApiResponse;
+import com.warrantyhub.dto.response.PartUsageDTO;
+import com.warrantyhub.service.MaintenanceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.security.SecurityRequirements;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/parts")
+@Tag(name = "Maintenance Management", description = "Operations for managing device maintenance records")
+@SecurityRequirements({
+        @SecurityRequirement(name = "Bearer Authentication"),
+        @SecurityRequirement(name = "Google OAuth2")
+})
+public class PartController {
+
+    private final MaintenanceService maintenanceService;
+
+    @Autowired
+    public PartController(MaintenanceService maintenanceService) {
+        this.maintenanceService = maintenanceService;
+    }
+
+    @GetMapping("/usage")
+    @Operation(
+            summary = "Get replaced parts usage",
+            description = "Lists the parts replaced across the authenticated user's devices with how many "
+                    + "maintenance records list each one, most used first"
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Parts usage retrieved successfully",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = PartUsageDTO.class)))
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or missing authentication token",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+    )
+    public ResponseEntity<List<PartUsageDTO>> getPartUsage(Authentication authentication) {
+        return ResponseEntity.ok(maintenanceService.getPartUsage(authentication));
+    }
+}
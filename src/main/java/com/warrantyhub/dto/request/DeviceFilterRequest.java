@@ -0,0 +1,130 @@
+package com.warrantyhub.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Schema(description = "Query parameters for filtering and sorting the device list; all are optional")
+public class DeviceFilterRequest {
+    @Schema(description = "Only devices with this warranty status", example = "active")
+    private String warrantyStatus;
+
+    @Schema(description = "Only devices from this manufacturer (case-insensitive)", example = "TechCorp")
+    private String manufacturer;
+
+    @Schema(description = "Only devices covered by this warranty provider (case-insensitive)", example = "Best Warranty Inc")
+    private String warrantyProvider;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    @Schema(description = "Purchased on or after this date", example = "2023-01-01")
+    private LocalDate purchasedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    @Schema(description = "Purchased on or before this date", example = "2023-12-31")
+    private LocalDate purchasedTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    @Schema(description = "Warranty ends on or after this date", example = "2025-01-01")
+    private LocalDate warrantyEndsFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    @Schema(description = "Warranty ends on or before this date", example = "2025-12-31")
+    private LocalDate warrantyEndsTo;
+
+    @Schema(description = "Purchase price at least", example = "100")
+    private BigDecimal minPrice;
+
+    @Schema(description = "Purchase price at most", example = "1000")
+    private BigDecimal maxPrice;
+
+    @Schema(description = "Sort key, optionally followed by ,asc or ,desc. One of name, manufacturer, "
+            + "purchaseDate, warrantyEndDate, purchasePrice", example = "warrantyEndDate,asc")
+    private String sort;
+
+    // No-args constructor
+    public DeviceFilterRequest() {
+    }
+
+    // Getters and Setters
+    public String getWarrantyStatus() {
+        return warrantyStatus;
+    }
+
+    public void setWarrantyStatus(String warrantyStatus) {
+        this.warrantyStatus = warrantyStatus;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public void setManufacturer(String manufacturer) {
+        this.manufacturer = manufacturer;
+    }
+
+    public String getWarrantyProvider() {
+        return warrantyProvider;
+    }
+
+    public void setWarrantyProvider(String warrantyProvider) {
+        this.warrantyProvider = warrantyProvider;
+    }
+
+    public LocalDate getPurchasedFrom() {
+        return purchasedFrom;
+    }
+
+    public void setPurchasedFrom(LocalDate purchasedFrom) {
+        this.purchasedFrom = purchasedFrom;
+    }
+
+    public LocalDate getPurchasedTo() {
+        return purchasedTo;
+    }
+
+    public void setPurchasedTo(LocalDate purchasedTo) {
+        this.purchasedTo = purchasedTo;
+    }
+
+    public LocalDate getWarrantyEndsFrom() {
+        return warrantyEndsFrom;
+    }
+
+    public void setWarrantyEndsFrom(LocalDate warrantyEndsFrom) {
+        this.warrantyEndsFrom = warrantyEndsFrom;
+    }
+
+    public LocalDate getWarrantyEndsTo() {
+        return warrantyEndsTo;
+    }
+
+    public void setWarrantyEndsTo(LocalDate warrantyEndsTo) {
+        this.warrantyEndsTo = warrantyEndsTo;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+}
@@ -0,0 +1,71 @@
+package com.warrantyhub.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+@Schema(description = "Request DTO for starting a resumable document upload")
+public class DocumentUploadInitRequest {
+    @NotBlank(message = "File name is required")
+    @Schema(description = "Original name of the file", example = "manual.pdf")
+    private String fileName;
+
+    @Schema(description = "Content type of the file", example = "application/pdf")
+    private String fileType;
+
+    @Positive(message = "Total size must be greater than zero")
+    @Schema(description = "Size of the complete file in bytes", example = "104857600")
+    private long totalSize;
+
+    @NotBlank(message = "Checksum is required")
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "Checksum must be a hex encoded SHA-256 digest")
+    @Schema(description = "Hex encoded SHA-256 digest of the complete file",
+            example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    private String checksum;
+
+    // No-args constructor
+    public DocumentUploadInitRequest() {
+    }
+
+    // All-args constructor
+    public DocumentUploadInitRequest(String fileName, String fileType, long totalSize, String checksum) {
+        this.fileName = fileName;
+        this.fileType = fileType;
+        this.totalSize = totalSize;
+        this.checksum = checksum;
+    }
+
+    // Getters and Setters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+}
@@ -12,16 +12,20 @@ public class AuthResponse {
 
     @Schema(description = "JWT access token for authenticated requests", example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...")
     private String token;
+
+    @Schema(description = "Refresh token for this device; it is replaced on every refresh", example = "Zx1f...")
+    private String refreshToken;
     
     // No-args constructor
     public AuthResponse() {
     }
     
     // All-args constructor
-    public AuthResponse(boolean success, UserDTO user, String token) {
+    public AuthResponse(boolean success, UserDTO user, String token, String refreshToken) {
         this.success = success;
         this.user = user;
         this.token = token;
+        this.refreshToken = refreshToken;
     }
     
     // Getters and Setters
@@ -48,4 +52,12 @@ public class AuthResponse {
     public void setToken(String token) {
         this.token = token;
     }
-}
\ No newline at end of file
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
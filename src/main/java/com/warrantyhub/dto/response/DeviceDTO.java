@@ -49,6 +49,9 @@ public class DeviceDTO {
 
     @Schema(description = "List of documents associated with the device")
     private List<DocumentDTO> documents;
+
+    @Schema(description = "Version of the device, also sent as its ETag; send it in If-Match to update", example = "3")
+    private Long version;
     
     // No-args constructor
     public DeviceDTO() {
@@ -178,4 +181,12 @@ public class DeviceDTO {
     public void setDocuments(List<DocumentDTO> documents) {
         this.documents = documents;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
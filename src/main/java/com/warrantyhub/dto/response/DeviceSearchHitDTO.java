@@ -0,0 +1,103 @@
+package com.warrantyhub.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "Device matching a search, with the fields that were searched")
+public class DeviceSearchHitDTO {
+    @Schema(description = "Unique identifier of the device", example = "42")
+    private String id;
+
+    @Schema(description = "Name of the device", example = "Smartphone X")
+    private String name;
+
+    @Schema(description = "Manufacturer of the device", example = "TechCorp")
+    private String manufacturer;
+
+    @Schema(description = "Model of the device", example = "X-2000")
+    private String model;
+
+    @Schema(description = "Serial number of the device", example = "SN123456789")
+    private String serialNumber;
+
+    @Schema(description = "Current warranty status", example = "active")
+    private String warrantyStatus;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    @Schema(description = "Date when the warranty expires", example = "2025-01-15")
+    private LocalDate warrantyEndDate;
+
+    @Schema(description = "Relevance of the match; higher is better", example = "12")
+    private int score;
+
+    // No-args constructor
+    public DeviceSearchHitDTO() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public void setManufacturer(String manufacturer) {
+        this.manufacturer = manufacturer;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getSerialNumber() {
+        return serialNumber;
+    }
+
+    public void setSerialNumber(String serialNumber) {
+        this.serialNumber = serialNumber;
+    }
+
+    public String getWarrantyStatus() {
+        return warrantyStatus;
+    }
+
+    public void setWarrantyStatus(String warrantyStatus) {
+        this.warrantyStatus = warrantyStatus;
+    }
+
+    public LocalDate getWarrantyEndDate() {
+        return warrantyEndDate;
+    }
+
+    public void setWarrantyEndDate(LocalDate warrantyEndDate) {
+        this.warrantyEndDate = warrantyEndDate;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
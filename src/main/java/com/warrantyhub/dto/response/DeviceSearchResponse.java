@@ -0,0 +1,77 @@
+package com.warrantyhub.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of device search results, best matches first")
+public class DeviceSearchResponse {
+    @Schema(description = "Search query as received", example = "sams tv")
+    private String query;
+
+    @Schema(description = "Zero-based page number", example = "0")
+    private int page;
+
+    @Schema(description = "Page size", example = "20")
+    private int size;
+
+    @Schema(description = "Number of devices matching the query across all pages", example = "3")
+    private int totalHits;
+
+    @Schema(description = "Matching devices on this page")
+    private List<DeviceSearchHitDTO> hits;
+
+    // No-args constructor
+    public DeviceSearchResponse() {
+    }
+
+    // All-args constructor
+    public DeviceSearchResponse(String query, int page, int size, int totalHits, List<DeviceSearchHitDTO> hits) {
+        this.query = query;
+        this.page = page;
+        this.size = size;
+        this.totalHits = totalHits;
+        this.hits = hits;
+    }
+
+    // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(int totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    public List<DeviceSearchHitDTO> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<DeviceSearchHitDTO> hits) {
+        this.hits = hits;
+    }
+}
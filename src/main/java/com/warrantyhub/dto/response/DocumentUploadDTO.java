@@ -0,0 +1,77 @@
+package com.warrantyhub.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "State of a resumable document upload")
+public class DocumentUploadDTO {
+    @Schema(description = "Identifier used for the chunk and complete calls", example = "3f1c2b7e-8a5d-4c1e-9b2f-6d7e8f9a0b1c")
+    private String uploadId;
+
+    @Schema(description = "Original name of the file", example = "manual.pdf")
+    private String fileName;
+
+    @Schema(description = "Size of the complete file in bytes", example = "104857600")
+    private long totalSize;
+
+    @Schema(description = "Offset at which the next chunk should start", example = "52428800")
+    private long receivedBytes;
+
+    @Schema(description = "Time after which an idle upload is discarded", example = "2024-01-16T10:15:30Z")
+    private Instant expiresAt;
+
+    // No-args constructor
+    public DocumentUploadDTO() {
+    }
+
+    // All-args constructor
+    public DocumentUploadDTO(String uploadId, String fileName, long totalSize, long receivedBytes, Instant expiresAt) {
+        this.uploadId = uploadId;
+        this.fileName = fileName;
+        this.totalSize = totalSize;
+        this.receivedBytes = receivedBytes;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public void setTotalSize(long totalSize) {
+        this.totalSize = totalSize;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -35,6 +35,9 @@ public class MaintenanceRecordDTO {
     @Schema(description = "Next scheduled maintenance date", example = "2024-06-15")
     private LocalDate nextScheduledDate;
 
+    @Schema(description = "Version of the record; send it in If-Match to update the record", example = "1")
+    private Long version;
+
     // No-args constructor
     public MaintenanceRecordDTO() {
     }
@@ -117,4 +120,12 @@ public class MaintenanceRecordDTO {
     public void setNextScheduledDate(LocalDate nextScheduledDate) {
         this.nextScheduledDate = nextScheduledDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
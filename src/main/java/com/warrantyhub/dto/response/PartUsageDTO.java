@@ -0,0 +1,55 @@
+package com.warrantyhub.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "How often a part was replaced across the user's devices")
+public class PartUsageDTO {
+    @Schema(description = "Name of the part", example = "Battery")
+    private String name;
+
+    @Schema(description = "Number of maintenance records listing the part", example = "3")
+    private long recordCount;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    @Schema(description = "Date of the latest maintenance that replaced the part", example = "2023-06-15")
+    private LocalDate lastReplaced;
+
+    // No-args constructor
+    public PartUsageDTO() {
+    }
+
+    // All-args constructor
+    public PartUsageDTO(String name, long recordCount, LocalDate lastReplaced) {
+        this.name = name;
+        this.recordCount = recordCount;
+        this.lastReplaced = lastReplaced;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public void setRecordCount(long recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    public LocalDate getLastReplaced() {
+        return lastReplaced;
+    }
+
+    public void setLastReplaced(LocalDate lastReplaced) {
+        this.lastReplaced = lastReplaced;
+    }
+}
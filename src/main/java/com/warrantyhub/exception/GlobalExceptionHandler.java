@@ -1,6 +1,7 @@
 package com.warrantyhub.exception;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -68,6 +69,42 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<?> handleTooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+    ErrorDetails errorDetails = new ErrorDetails(
+            new Date(),
+            ex.getMessage(),
+            request.getDescription(false),
+            HttpStatus.TOO_MANY_REQUESTS.value());
+
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(errorDetails);
+  }
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<?> handlePreconditionFailedException(PreconditionFailedException ex, WebRequest request) {
+    ErrorDetails errorDetails = new ErrorDetails(
+            new Date(),
+            ex.getMessage(),
+            request.getDescription(false),
+            HttpStatus.PRECONDITION_FAILED.value());
+
+    return new ResponseEntity<>(errorDetails, HttpStatus.PRECONDITION_FAILED);
+  }
+
+  // A concurrent update committed between reading the row and flushing the change
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<?> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request) {
+    ErrorDetails errorDetails = new ErrorDetails(
+            new Date(),
+            "The resource was modified by another request; fetch it again and reapply the changes",
+            request.getDescription(false),
+            HttpStatus.PRECONDITION_FAILED.value());
+
+    return new ResponseEntity<>(errorDetails, HttpStatus.PRECONDITION_FAILED);
+  }
+
   // Handle Spring Security related exceptions
   @ExceptionHandler(BadCredentialsException.class)
   public ResponseEntity<?> handleBadCredentialsException(BadCredentialsException ex, WebRequest request) {
@@ -1,5 +1,6 @@
 package com.warrantyhub.model;
 
+import com.warrantyhub.util.SerialNumberUtils;
 import jakarta.persistence.*;
 
 
@@ -9,19 +10,39 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "devices")
+@Table(name = "devices", indexes = {
+        @Index(name = "ix_devices_user_warranty_end", columnList = "user_id, warranty_end_date"),
+        @Index(name = "ix_devices_warranty_end_date", columnList = "warranty_end_date"),
+        @Index(name = "ix_devices_user_purchase_date", columnList = "user_id, purchase_date"),
+        @Index(name = "ix_devices_user_name", columnList = "user_id, name"),
+        @Index(name = "ux_devices_user_serial_manufacturer",
+                columnList = "user_id, serial_number_normalized, manufacturer_key", unique = true)
+})
 
 public class Device {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "device_ids")
+    @TableGenerator(name = "device_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "devices", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String name;
 
     private String manufacturer;
+
+    // Maintained by the database for ux_devices_user_serial_manufacturer, which would not hold for a NULL manufacturer
+    @Column(name = "manufacturer_key", insertable = false, updatable = false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS (COALESCE(manufacturer, ''))")
+    private String manufacturerKey;
+
     private String model;
     private String serialNumber;
+
+    // Set together with serialNumber; the exact-match lookup key
+    @Column(name = "serial_number_normalized")
+    private String serialNumberNormalized;
+
     private LocalDate purchaseDate;
     private LocalDate warrantyEndDate;
 
@@ -42,6 +63,16 @@ public class Device {
     @OneToMany(mappedBy = "device", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Document> documents = new ArrayList<>();
 
+    // Maintained with conditional UPDATE statements so quota checks never load the documents collection.
+    // Not updatable, so saving an edited device cannot write back a stale count
+    @Column(nullable = false, updatable = false)
+    private int documentCount;
+
+    // Incremented on every update; compared with If-Match on PUT
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 	public Long getId() {
 		return id;
 	}
@@ -80,6 +111,16 @@ public class Device {
 
 	public void setSerialNumber(String serialNumber) {
 		this.serialNumber = serialNumber;
+		this.serialNumberNormalized = SerialNumberUtils.normalize(serialNumber);
+	}
+
+	public String getSerialNumberNormalized() {
+		return serialNumberNormalized;
+	}
+
+	// Only to keep the stored key of a device whose serial did not change; setSerialNumber derives it otherwise
+	public void setSerialNumberNormalized(String serialNumberNormalized) {
+		this.serialNumberNormalized = serialNumberNormalized;
 	}
 
 	public LocalDate getPurchaseDate() {
@@ -154,6 +195,22 @@ public class Device {
 		this.documents = documents;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public int getDocumentCount() {
+		return documentCount;
+	}
+
+	public void setDocumentCount(int documentCount) {
+		this.documentCount = documentCount;
+	}
+
 	public Device(Long id, String name, String manufacturer, String model, String serialNumber,
 			LocalDate purchaseDate, LocalDate warrantyEndDate, String warrantyStatus, String warrantyProvider,
 			BigDecimal purchasePrice, String notes, User user, List<MaintenanceRecord> maintenanceHistory,
@@ -163,6 +220,7 @@ public class Device {
 		this.manufacturer = manufacturer;
 		this.model = model;
 		this.serialNumber = serialNumber;
+		this.serialNumberNormalized = SerialNumberUtils.normalize(serialNumber);
 		this.purchaseDate = purchaseDate;
 		this.warrantyEndDate = warrantyEndDate;
 		this.warrantyStatus = warrantyStatus;
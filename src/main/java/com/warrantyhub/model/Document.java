@@ -6,11 +6,15 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "ix_documents_device_id", columnList = "device_id")
+})
 
 public class Document {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "document_ids")
+    @TableGenerator(name = "document_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "documents", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,12 +28,20 @@ public class Document {
 
     private String fileType;
     
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     private String storedFileName;
 
     @Column(nullable = false)
     private LocalDate uploadDate;
 
+    // Set when the file is stored gzip-compressed on disk and must be inflated on download
+    @Column(nullable = false)
+    private boolean compressed;
+
+    private Long fileSize;
+
+    private Long storedSize;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "device_id", nullable = false)
     private Device device;
@@ -90,6 +102,30 @@ public class Document {
 		this.uploadDate = uploadDate;
 	}
 
+	public boolean isCompressed() {
+		return compressed;
+	}
+
+	public void setCompressed(boolean compressed) {
+		this.compressed = compressed;
+	}
+
+	public Long getFileSize() {
+		return fileSize;
+	}
+
+	public void setFileSize(Long fileSize) {
+		this.fileSize = fileSize;
+	}
+
+	public Long getStoredSize() {
+		return storedSize;
+	}
+
+	public void setStoredSize(Long storedSize) {
+		this.storedSize = storedSize;
+	}
+
 	public Device getDevice() {
 		return device;
 	}
@@ -0,0 +1,8 @@
+package com.warrantyhub.model;
+
+public enum EmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
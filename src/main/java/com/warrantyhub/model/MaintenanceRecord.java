@@ -4,14 +4,19 @@ import jakarta.persistence.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Entity
-@Table(name = "maintenance_records")
+@Table(name = "maintenance_records", indexes = {
+        @Index(name = "ix_maintenance_records_device_date", columnList = "device_id, date"),
+        @Index(name = "ix_maintenance_records_next_scheduled", columnList = "next_scheduled_date")
+})
 public class MaintenanceRecord {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "maintenance_record_ids")
+    @TableGenerator(name = "maintenance_record_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "maintenance_records", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -22,14 +27,21 @@ public class MaintenanceRecord {
     private BigDecimal cost;
     private String serviceProvider;
 
-    @ElementCollection
-    @CollectionTable(name = "maintenance_parts_replaced",
-            joinColumns = @JoinColumn(name = "maintenance_id"))
-    @Column(name = "part_name")
-    private List<String> partsReplaced = new ArrayList<>();
+    // Modify in place rather than replacing the set, so only the changed rows are written
+    @ManyToMany
+    @JoinTable(name = "maintenance_record_parts",
+            joinColumns = @JoinColumn(name = "maintenance_id"),
+            inverseJoinColumns = @JoinColumn(name = "part_id"))
+    @OrderBy("name")
+    private Set<Part> parts = new LinkedHashSet<>();
 
     private LocalDate nextScheduledDate;
 
+    // Incremented on every update, including changes to the parts; compared with If-Match on PUT
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "device_id", nullable = false)
     private Device device;
@@ -39,14 +51,14 @@ public class MaintenanceRecord {
 	}
 
 	public MaintenanceRecord(Long id, LocalDate date, String type, String description, BigDecimal cost,
-			String serviceProvider, List<String> partsReplaced, LocalDate nextScheduledDate, Device device) {
+			String serviceProvider, Set<Part> parts, LocalDate nextScheduledDate, Device device) {
 		this.id = id;
 		this.date = date;
 		this.type = type;
 		this.description = description;
 		this.cost = cost;
 		this.serviceProvider = serviceProvider;
-		this.partsReplaced = partsReplaced;
+		this.parts = parts;
 		this.nextScheduledDate = nextScheduledDate;
 		this.device = device;
 	}
@@ -99,12 +111,12 @@ public class MaintenanceRecord {
 		this.serviceProvider = serviceProvider;
 	}
 
-	public List<String> getPartsReplaced() {
-		return partsReplaced;
+	public Set<Part> getParts() {
+		return parts;
 	}
 
-	public void setPartsReplaced(List<String> partsReplaced) {
-		this.partsReplaced = partsReplaced;
+	public void setParts(Set<Part> parts) {
+		this.parts = parts;
 	}
 
 	public LocalDate getNextScheduledDate() {
@@ -115,6 +127,14 @@ public class MaintenanceRecord {
 		this.nextScheduledDate = nextScheduledDate;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public Device getDevice() {
 		return device;
 	}
@@ -0,0 +1,62 @@
+package com.warrantyhub.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A replaced part name, stored once and shared by every maintenance record that lists it.
+ * Rows are only created through PartRepository.insertIfAbsent; the name column uses a binary
+ * collation so names that differ only in case stay separate entries.
+ */
+@Entity
+@Table(name = "parts", uniqueConstraints = {
+        @UniqueConstraint(name = "ux_parts_name", columnNames = "name")
+})
+public class Part {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+	public Part() {
+	}
+
+	public Part(Long id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	// Equal by name, the natural key, so a record's part set can be diffed against resolved parts
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Part other)) {
+			return false;
+		}
+		return name != null && name.equals(other.getName());
+	}
+
+	@Override
+	public int hashCode() {
+		return name == null ? 0 : name.hashCode();
+	}
+}
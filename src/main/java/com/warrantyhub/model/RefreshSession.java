@@ -0,0 +1,127 @@
+package com.warrantyhub.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * One refresh session per user and device. The token rotates on every refresh; the digest
+ * of the token it replaced is kept so a replayed (stolen) token can be recognised.
+ */
+@Entity
+@Table(name = "refresh_sessions",
+        uniqueConstraints = @UniqueConstraint(name = "ux_refresh_sessions_user_device", columnNames = {"user_id", "device_id"}),
+        indexes = {
+                @Index(name = "ux_refresh_sessions_token_hash", columnList = "token_hash, expiry_date, user_id, user_email", unique = true),
+                @Index(name = "ix_refresh_sessions_previous_token_hash", columnList = "previous_token_hash"),
+                @Index(name = "ix_refresh_sessions_expiry_date", columnList = "expiry_date")
+        })
+public class RefreshSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "refresh_session_ids")
+    @TableGenerator(name = "refresh_session_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "refresh_sessions", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Copied from the user (emails cannot be changed) so a refresh never reads the users table
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "device_id", nullable = false, length = 64)
+    private String deviceId;
+
+    @Column(name = "token_hash", nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
+
+    @Column(name = "previous_token_hash", columnDefinition = "BINARY(32)")
+    private byte[] previousTokenHash;
+
+    @Column(name = "expiry_date", nullable = false)
+    private Instant expiryDate;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant lastUsedAt;
+
+    // No-args constructor
+    public RefreshSession() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public byte[] getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(byte[] tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public byte[] getPreviousTokenHash() {
+        return previousTokenHash;
+    }
+
+    public void setPreviousTokenHash(byte[] previousTokenHash) {
+        this.previousTokenHash = previousTokenHash;
+    }
+
+    public Instant getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(Instant expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(Instant lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+}
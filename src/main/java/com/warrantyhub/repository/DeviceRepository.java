@@ -2,14 +2,70 @@ package com.warrantyhub.repository;
 
 import com.warrantyhub.model.Device;
 import com.warrantyhub.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface DeviceRepository extends JpaRepository<Device, Long> {
+public interface DeviceRepository extends JpaRepository<Device, Long>, JpaSpecificationExecutor<Device> {
     List<Device> findByUser(User user);
+    long countByUserId(Long userId);
     List<Device> findByWarrantyEndDateBetween(LocalDate start, LocalDate end);
+
+    /**
+     * Exact serial match within one user's devices, served by ux_devices_user_serial_manufacturer
+     */
+    List<Device> findByUserIdAndSerialNumberNormalized(Long userId, String serialNumberNormalized);
+
+    /**
+     * The device holding a serial for a manufacturer; a null manufacturer matches devices without one
+     */
+    Optional<Device> findFirstByUserIdAndSerialNumberNormalizedAndManufacturer(
+            Long userId, String serialNumberNormalized, String manufacturer);
+
+    /**
+     * Claim a document slot on the device. Returns 0 when the device is already at the limit,
+     * so concurrent uploads cannot exceed it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Device d SET d.documentCount = d.documentCount + 1 WHERE d.id = :id AND d.documentCount < :max")
+    int incrementDocumentCount(@Param("id") Long id, @Param("max") int max);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Device d SET d.documentCount = d.documentCount - 1 WHERE d.id = :id AND d.documentCount > 0")
+    int decrementDocumentCount(@Param("id") Long id);
+
+    /**
+     * Keyset page of device ids, used by the reconciliation job to walk the table in batches
+     */
+    @Query("SELECT d.id FROM Device d WHERE d.id > :after ORDER BY d.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Devices in the id range (after, upTo] whose counter differs from their document rows
+     */
+    @Query("SELECT d.id FROM Device d WHERE d.id > :after AND d.id <= :upTo " +
+            "AND d.documentCount <> (SELECT COUNT(doc) FROM Document doc WHERE doc.device = d)")
+    List<Long> findIdsWithDocumentCountDrift(@Param("after") Long after, @Param("upTo") Long upTo);
+
+    /**
+     * Recompute the counters of the given devices from the documents table, correcting any drift
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Device d SET d.documentCount = (SELECT COUNT(doc) FROM Document doc WHERE doc.device = d) " +
+            "WHERE d.id IN :ids")
+    int recountDocuments(@Param("ids") Collection<Long> ids);
 }
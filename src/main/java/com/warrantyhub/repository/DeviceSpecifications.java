@@ -0,0 +1,76 @@
+package com.warrantyhub.repository;
+
+import com.warrantyhub.model.Device;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Building blocks for the device list filters. Each factory returns null when its value is
+ * absent, which {@link Specification#and} skips, so only the filters actually given end up in
+ * the WHERE clause and every value is bound as a parameter. String comparisons rely on the
+ * column collation for case-insensitivity, which keeps them sargable.
+ */
+public final class DeviceSpecifications {
+
+    private DeviceSpecifications() {
+    }
+
+    /**
+     * Compares the user_id foreign key directly, without joining users
+     */
+    public static Specification<Device> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Device> hasWarrantyStatus(String warrantyStatus) {
+        return equalTo("warrantyStatus", warrantyStatus);
+    }
+
+    public static Specification<Device> hasManufacturer(String manufacturer) {
+        return equalTo("manufacturer", manufacturer);
+    }
+
+    public static Specification<Device> hasWarrantyProvider(String warrantyProvider) {
+        return equalTo("warrantyProvider", warrantyProvider);
+    }
+
+    public static Specification<Device> purchasedBetween(LocalDate from, LocalDate to) {
+        return between("purchaseDate", from, to);
+    }
+
+    public static Specification<Device> warrantyEndsBetween(LocalDate from, LocalDate to) {
+        return between("warrantyEndDate", from, to);
+    }
+
+    public static Specification<Device> pricedBetween(BigDecimal min, BigDecimal max) {
+        return between("purchasePrice", min, max);
+    }
+
+    private static Specification<Device> equalTo(String attribute, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return (root, query, cb) -> cb.equal(root.get(attribute), trimmed);
+    }
+
+    /**
+     * Inclusive range; either bound may be open
+     */
+    private static <T extends Comparable<? super T>> Specification<Device> between(String attribute, T from, T to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.<T>get(attribute), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.<T>get(attribute), from);
+            }
+            return cb.between(root.<T>get(attribute), from, to);
+        };
+    }
+}
@@ -2,13 +2,27 @@ package com.warrantyhub.repository;
 
 import com.warrantyhub.model.Device;
 import com.warrantyhub.model.Document;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
     int countByDevice(Device device);
     Optional<Document> findByStoredFileName(String fileName);
+    List<Document> findByDeviceIdOrderByIdAsc(Long deviceId);
+    List<Document> findByDeviceUserIdOrderByDeviceIdAscIdAsc(Long userId);
+    boolean existsByStoredFileName(String storedFileName);
+
+    /**
+     * Keyset page of stored file names in index order, used by the reconciliation job
+     * to walk the table without loading it at once
+     */
+    @Query("SELECT d.storedFileName FROM Document d WHERE d.storedFileName > :after ORDER BY d.storedFileName")
+    List<String> findStoredFileNamesAfter(@Param("after") String after, Pageable pageable);
 }
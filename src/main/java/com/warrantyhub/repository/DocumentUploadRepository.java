@@ -0,0 +1,47 @@
+package com.warrantyhub.repository;
+
+import com.warrantyhub.model.DocumentUpload;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentUploadRepository extends JpaRepository<DocumentUpload, Long> {
+
+    /**
+     * Chunks arrive right after the upload is initiated, so this reads from the primary. The device
+     * is fetched with the upload for the ownership check, which runs outside a transaction.
+     */
+    @Transactional
+    @EntityGraph(attributePaths = "device")
+    Optional<DocumentUpload> findByUploadId(String uploadId);
+
+    /**
+     * Read from the primary: the sweep deletes each batch before reading the next one
+     */
+    @Transactional
+    List<DocumentUpload> findTop100ByUpdatedAtBefore(Instant cutoff);
+
+    /**
+     * Advance the received high-water mark. The condition keeps concurrent or retried
+     * chunks from moving it backwards.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DocumentUpload u SET u.receivedBytes = :end, u.updatedAt = :now " +
+            "WHERE u.uploadId = :uploadId AND u.receivedBytes < :end")
+    int advanceReceivedBytes(@Param("uploadId") String uploadId, @Param("end") long end, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE DocumentUpload u SET u.updatedAt = :now WHERE u.uploadId = :uploadId")
+    int touch(@Param("uploadId") String uploadId, @Param("now") Instant now);
+}
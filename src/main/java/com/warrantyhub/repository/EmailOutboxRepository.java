@@ -0,0 +1,42 @@
+package com.warrantyhub.repository;
+
+import com.warrantyhub.model.EmailOutbox;
+import com.warrantyhub.model.EmailStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Lock due messages, skipping rows already locked by another node (lock timeout -2 is
+     * Hibernate's SKIP LOCKED). Must run inside a transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<EmailOutbox> findDueForUpdate(@Param("status") EmailStatus status, @Param("now") Instant now, Pageable pageable);
+
+    long countByStatus(EmailStatus status);
+
+    /**
+     * Return messages claimed by a worker that never reported back (e.g. the node stopped) to the queue
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = com.warrantyhub.model.EmailStatus.PENDING " +
+            "WHERE e.status = com.warrantyhub.model.EmailStatus.SENDING AND e.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("cutoff") Instant cutoff);
+}
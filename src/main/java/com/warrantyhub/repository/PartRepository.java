@@ -0,0 +1,47 @@
+package com.warrantyhub.repository;
+
+import com.warrantyhub.model.Part;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PartRepository extends JpaRepository<Part, Long> {
+    List<Part> findByNameIn(Collection<String> names);
+
+    /**
+     * Adds a name to the catalog; a no-op when it is already there, so concurrent writers adding
+     * the same new part cannot fail on ux_parts_name. The native spaces hint limits second-level
+     * cache invalidation to parts; without it Hibernate would evict every cached region
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "parts"))
+    @Query(value = "INSERT INTO parts (name) VALUES (:name) ON DUPLICATE KEY UPDATE name = name", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+
+    /**
+     * How often each part was replaced across a user's devices, most used first. Runs from the
+     * user's devices through ix_maintenance_records_device_date and the primary key of
+     * maintenance_record_parts, without scanning other users' records
+     */
+    @Query("SELECT p.name AS name, COUNT(r) AS recordCount, MAX(r.date) AS lastReplaced "
+            + "FROM MaintenanceRecord r JOIN r.parts p "
+            + "WHERE r.device.user.id = :userId "
+            + "GROUP BY p.id, p.name "
+            + "ORDER BY COUNT(r) DESC, p.name")
+    List<PartUsage> findUsageByUserId(@Param("userId") Long userId);
+
+    interface PartUsage {
+        String getName();
+        long getRecordCount();
+        LocalDate getLastReplaced();
+    }
+}
@@ -0,0 +1,98 @@
+package com.warrantyhub.repository;
+
+import com.warrantyhub.model.RefreshSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshSessionRepository extends JpaRepository<RefreshSession, Long> {
+
+    /**
+     * Columns needed to mint an access token, all read from the token hash index
+     */
+    interface RefreshSessionView {
+        Long getId();
+        Long getUserId();
+        String getUserEmail();
+        Instant getExpiryDate();
+    }
+
+    /**
+     * Find session details by current token digest
+     */
+    @Query("SELECT s.id AS id, s.user.id AS userId, s.userEmail AS userEmail, s.expiryDate AS expiryDate " +
+            "FROM RefreshSession s WHERE s.tokenHash = :tokenHash")
+    Optional<RefreshSessionView> findViewByTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    /**
+     * Locking reads, so they see sessions committed after this transaction's snapshot was taken
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<RefreshSession> findByUserIdAndDeviceId(Long userId, String deviceId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<RefreshSession> findByUserIdOrderByLastUsedAtAsc(Long userId);
+
+    /**
+     * Swap in a new token only if the session still holds the presented one, so two concurrent
+     * refreshes with the same token cannot both succeed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshSession s SET s.previousTokenHash = :oldHash, s.tokenHash = :newHash, " +
+            "s.expiryDate = :expiryDate, s.lastUsedAt = :now WHERE s.id = :id AND s.tokenHash = :oldHash")
+    int rotateToken(@Param("id") Long id,
+                    @Param("oldHash") byte[] oldHash,
+                    @Param("newHash") byte[] newHash,
+                    @Param("expiryDate") Instant expiryDate,
+                    @Param("now") Instant now);
+
+    /**
+     * Revoke the session whose already-rotated token was presented again
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshSession s WHERE s.previousTokenHash = :tokenHash")
+    int deleteByPreviousTokenHash(@Param("tokenHash") byte[] tokenHash);
+
+    /**
+     * Delete all sessions of a user
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshSession s WHERE s.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Delete the session of one device
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshSession s WHERE s.user.id = :userId AND s.deviceId = :deviceId")
+    int deleteByUserIdAndDeviceId(@Param("userId") Long userId, @Param("deviceId") String deviceId);
+
+    /**
+     * Ids of expired sessions, oldest first, read from the expiry index
+     */
+    @Query("SELECT s.id FROM RefreshSession s WHERE s.expiryDate < :now ORDER BY s.expiryDate")
+    List<Long> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Delete a batch of sessions by id
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshSession s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
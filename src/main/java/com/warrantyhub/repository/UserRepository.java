@@ -1,16 +1,54 @@
 package com.warrantyhub.repository;
 
 import com.warrantyhub.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    /**
+     * Reads from the primary when called outside a service transaction: an access token
+     * issued at registration is used straight away, before a lagging replica has the new user.
+     * Implemented as a natural-id lookup in {@link UserRepositoryCustomImpl}.
+     */
+    @Override
+    @Transactional
     Optional<User> findByEmail(String email);
+
     boolean existsByEmail(String email);
+
+    /**
+     * Locks the user's row until the transaction ends, serializing writes that must see each
+     * other's committed rows, such as two first logins creating the same session
+     */
+    @Query(value = "SELECT id FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("id") Long id);
     Optional<User> findByResetPasswordToken(String token);
     List<User> findByPreferencesEmailNotificationsTrue();
+
+    /**
+     * Ids of users whose reset token expired, oldest first, read from the expiry index
+     */
+    @Query("SELECT u.id FROM User u WHERE u.resetPasswordTokenExpiry < :now ORDER BY u.resetPasswordTokenExpiry")
+    List<Long> findIdsWithResetTokenExpiredBefore(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Locks and loads the users in a batch whose reset token is still expired; the expiry is
+     * re-checked in case a new token was issued since the ids were read. The tokens are cleared
+     * through the entities rather than a bulk update, which would evict the whole users cache
+     * region on every sweep batch instead of just these entries.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids AND u.resetPasswordTokenExpiry < :now")
+    List<User> findByIdInWithResetTokenExpiredBefore(@Param("ids") List<Long> ids, @Param("now") Instant now);
 }
@@ -0,0 +1,14 @@
+package com.warrantyhub.repository;
+
+import com.warrantyhub.model.User;
+
+import java.util.Optional;
+
+/**
+ * Lookups that go through the Hibernate session instead of a derived query, so they can be
+ * answered from the second-level cache.
+ */
+public interface UserRepositoryCustom {
+
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,324 @@
+package com.warrantyhub.scheduler;
+
+import com.warrantyhub.config.FileStorageConfig;
+import com.warrantyhub.exception.FileStorageException;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.repository.DocumentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merge-joins the upload directory with the documents table to find files without a row
+ * (orphans, which are quarantined) and rows without a file (dangling, which are reported).
+ *
+ * Neither side is ever held completely: the directory listing is sorted externally in runs
+ * of {@value #SORT_RUN_SIZE} names, and the table is read in keyset pages of
+ * {@value #PAGE_SIZE} in index order.
+ */
+@Component
+public class DocumentReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentReconciliationJob.class);
+
+    private static final int PAGE_SIZE = 1000;
+    // Names held in memory while sorting the directory listing, a few megabytes
+    private static final int SORT_RUN_SIZE = 50_000;
+    private static final String QUARANTINE_DIRECTORY = ".quarantine";
+
+    private final DocumentRepository documentRepository;
+    private final DeviceRepository deviceRepository;
+    private final Path fileStorageLocation;
+    private final Path quarantineLocation;
+
+    private final AtomicLong orphanedFiles = new AtomicLong();
+    private final AtomicLong quarantinedFiles = new AtomicLong();
+    private final AtomicLong danglingRows = new AtomicLong();
+    private final AtomicLong matchedFiles = new AtomicLong();
+    private final AtomicLong recountedDevices = new AtomicLong();
+
+    @Value("${app.documents.reconciliation.grace-minutes}")
+    private long graceMinutes;
+
+    @Autowired
+    public DocumentReconciliationJob(
+            DocumentRepository documentRepository,
+            DeviceRepository deviceRepository,
+            FileStorageConfig fileStorageConfig,
+            MeterRegistry meterRegistry) {
+        this.documentRepository = documentRepository;
+        this.deviceRepository = deviceRepository;
+        this.fileStorageLocation = Paths.get(fileStorageConfig.getUploadDir())
+                .toAbsolutePath().normalize();
+        this.quarantineLocation = this.fileStorageLocation.resolve(QUARANTINE_DIRECTORY);
+
+        Gauge.builder("warrantyhub.documents.reconciliation.orphaned", orphanedFiles, AtomicLong::get)
+                .description("Files without a document row found by the last reconciliation run")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.documents.reconciliation.quarantined", quarantinedFiles, AtomicLong::get)
+                .description("Orphaned files moved to quarantine by the last reconciliation run")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.documents.reconciliation.dangling", danglingRows, AtomicLong::get)
+                .description("Document rows without a stored file found by the last reconciliation run")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.documents.reconciliation.matched", matchedFiles, AtomicLong::get)
+                .description("Files matched to a document row by the last reconciliation run")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.documents.reconciliation.recounted", recountedDevices, AtomicLong::get)
+                .description("Device document counters corrected by the last reconciliation run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.documents.reconciliation.cron}")
+    public void reconcile() {
+        try {
+            Files.createDirectories(quarantineLocation);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not create the quarantine directory", ex);
+        }
+
+        RunCounts counts = new RunCounts();
+        Instant graceCutoff = Instant.now().minus(Duration.ofMinutes(graceMinutes));
+
+        try (SortedFileNames files = SortedFileNames.of(fileStorageLocation, SORT_RUN_SIZE)) {
+            mergeJoin(files, graceCutoff, counts);
+        } catch (IOException | DirectoryIteratorException ex) {
+            logger.error("Document reconciliation aborted: {}", ex.getMessage(), ex);
+            return;
+        }
+
+        long recounted = recountDrifted();
+
+        orphanedFiles.set(counts.orphaned);
+        quarantinedFiles.set(counts.quarantined);
+        danglingRows.set(counts.dangling);
+        matchedFiles.set(counts.matched);
+        recountedDevices.set(recounted);
+
+        logger.info("Document reconciliation finished: {} matched, {} orphaned ({} quarantined), {} dangling, "
+                + "{} device counters corrected", counts.matched, counts.orphaned, counts.quarantined,
+                counts.dangling, recounted);
+    }
+
+    /**
+     * Corrects drift in the per-device document counters used for quota checks. Devices are
+     * walked in keyset pages and only those whose counter differs are updated, so a run locks
+     * a handful of rows for a short time instead of every device at once.
+     */
+    private long recountDrifted() {
+        long recounted = 0;
+        Long after = 0L;
+        List<Long> page;
+
+        do {
+            page = deviceRepository.findIdsAfter(after, PageRequest.of(0, PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            Long upTo = page.get(page.size() - 1);
+            List<Long> drifted = deviceRepository.findIdsWithDocumentCountDrift(after, upTo);
+            if (!drifted.isEmpty()) {
+                recounted += deviceRepository.recountDocuments(drifted);
+                logger.info("Corrected document counters of devices {}", drifted);
+            }
+            after = upTo;
+        } while (page.size() == PAGE_SIZE);
+
+        return recounted;
+    }
+
+    /**
+     * Walks the sorted directory listing and the table in step. Both are in stored file name
+     * order, so each name is compared with the current name on the other side only.
+     */
+    private void mergeJoin(SortedFileNames files, Instant graceCutoff, RunCounts counts) throws IOException {
+        String file = files.next();
+        String after = "";
+        List<String> page;
+
+        do {
+            page = documentRepository.findStoredFileNamesAfter(after, PageRequest.of(0, PAGE_SIZE));
+            for (String row : page) {
+                while (file != null && file.compareTo(row) < 0) {
+                    handleUnmatchedFile(file, graceCutoff, counts);
+                    file = files.next();
+                }
+                if (row.equals(file)) {
+                    counts.matched++;
+                    file = files.next();
+                } else {
+                    handleUnmatchedRow(row, counts);
+                }
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        while (file != null) {
+            handleUnmatchedFile(file, graceCutoff, counts);
+            file = files.next();
+        }
+    }
+
+    /**
+     * Stored names start with a lower-case UUID, which sorts the same under the column's
+     * collation as in Java. A name that does not may be out of step, so the rare unmatched
+     * names are confirmed with a point lookup before anything is moved or reported.
+     */
+    private void handleUnmatchedFile(String file, Instant graceCutoff, RunCounts counts) {
+        if (documentRepository.existsByStoredFileName(file)) {
+            counts.matched++;
+        } else {
+            handleOrphan(file, graceCutoff, counts);
+        }
+    }
+
+    private void handleUnmatchedRow(String row, RunCounts counts) {
+        // A file that exists is counted when the directory side reaches it
+        if (!Files.exists(fileStorageLocation.resolve(row))) {
+            counts.dangling++;
+            logger.warn("Document row references missing file: {}", row);
+        }
+    }
+
+    private void handleOrphan(String fileName, Instant graceCutoff, RunCounts counts) {
+        Path file = fileStorageLocation.resolve(fileName);
+        try {
+            // Recent files may belong to an upload whose row has not been committed yet
+            if (Files.getLastModifiedTime(file).toInstant().isAfter(graceCutoff)) {
+                return;
+            }
+            counts.orphaned++;
+            Files.move(file, quarantineLocation.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+            counts.quarantined++;
+            logger.info("Quarantined orphaned file: {}", fileName);
+        } catch (IOException ex) {
+            logger.warn("Could not quarantine orphaned file {}: {}", fileName, ex.getMessage());
+        }
+    }
+
+    /**
+     * The names of the regular files in a directory in sorted order. The listing is sorted in
+     * runs of a bounded size that are spilled to temporary files and merged while reading, so
+     * it is never held in memory at once.
+     */
+    static final class SortedFileNames implements Closeable {
+        private final Path runDirectory;
+        private final PriorityQueue<Run> runs = new PriorityQueue<>(Comparator.comparing((Run run) -> run.current));
+
+        private SortedFileNames(Path runDirectory) {
+            this.runDirectory = runDirectory;
+        }
+
+        static SortedFileNames of(Path directory, int runSize) throws IOException {
+            SortedFileNames names = new SortedFileNames(Files.createTempDirectory("reconciliation-"));
+            try {
+                List<String> buffer = new ArrayList<>(runSize);
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+                    for (Path path : stream) {
+                        buffer.add(path.getFileName().toString());
+                        if (buffer.size() == runSize) {
+                            names.spill(buffer);
+                        }
+                    }
+                }
+                names.spill(buffer);
+                return names;
+            } catch (IOException | RuntimeException ex) {
+                names.close();
+                throw ex;
+            }
+        }
+
+        private void spill(List<String> buffer) throws IOException {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            Collections.sort(buffer);
+            Path runFile = runDirectory.resolve("run-" + runs.size());
+            Files.write(runFile, buffer, StandardCharsets.UTF_8);
+            buffer.clear();
+
+            Run run = new Run(Files.newBufferedReader(runFile, StandardCharsets.UTF_8));
+            if (run.advance()) {
+                runs.add(run);
+            } else {
+                run.reader.close();
+            }
+        }
+
+        /**
+         * The next name in sorted order, or null when all have been read
+         */
+        String next() throws IOException {
+            Run run = runs.poll();
+            if (run == null) {
+                return null;
+            }
+            String name = run.current;
+            if (run.advance()) {
+                runs.add(run);
+            } else {
+                run.reader.close();
+            }
+            return name;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Run run : runs) {
+                run.reader.close();
+            }
+            runs.clear();
+            FileSystemUtils.deleteRecursively(runDirectory);
+        }
+
+        private static final class Run {
+            private final BufferedReader reader;
+            private String current;
+
+            private Run(BufferedReader reader) {
+                this.reader = reader;
+            }
+
+            private boolean advance() throws IOException {
+                current = reader.readLine();
+                return current != null;
+            }
+        }
+    }
+
+    private static final class RunCounts {
+        private long orphaned;
+        private long quarantined;
+        private long dangling;
+        private long matched;
+    }
+}
@@ -0,0 +1,38 @@
+package com.warrantyhub.scheduler;
+
+import com.warrantyhub.service.DocumentUploadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes resumable uploads that have not received a chunk within the configured expiry,
+ * together with their partial files.
+ */
+@Component
+public class DocumentUploadSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentUploadSweeper.class);
+
+    private final DocumentUploadService documentUploadService;
+
+    @Autowired
+    public DocumentUploadSweeper(DocumentUploadService documentUploadService) {
+        this.documentUploadService = documentUploadService;
+    }
+
+    @Scheduled(fixedDelayString = "${app.upload.chunked.sweep-interval-ms}",
+            initialDelayString = "${app.upload.chunked.sweep-interval-ms}")
+    public void purgeExpiredUploads() {
+        try {
+            int purged = documentUploadService.purgeExpiredUploads();
+            if (purged > 0) {
+                logger.info("Purged {} expired document uploads", purged);
+            }
+        } catch (Exception ex) {
+            logger.error("Error purging expired document uploads: {}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.warrantyhub.scheduler;
+
+import com.warrantyhub.model.EmailOutbox;
+import com.warrantyhub.service.EmailOutboxService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the email outbox and hands due messages to the bounded dispatch pool in batches, each
+ * batch sent over one SMTP connection. Only as many messages are claimed as the pool can queue,
+ * so a slow SMTP server backs up in the table rather than in memory.
+ *
+ * The pool is private to the dispatcher rather than a bean: an Executor bean would replace
+ * Boot's applicationTaskExecutor, which MVC async requests and streamed responses run on.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxService emailOutboxService;
+    private final ThreadPoolTaskExecutor emailDispatchExecutor;
+    private final AtomicLong pendingEmails = new AtomicLong();
+
+    @Value("${app.mail.transport.batch-size}")
+    private int batchSize;
+
+    @Autowired
+    public EmailOutboxDispatcher(
+            EmailOutboxService emailOutboxService,
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.outbox.workers}") int workers,
+            @Value("${app.mail.outbox.queue-capacity}") int queueCapacity) {
+        this.emailOutboxService = emailOutboxService;
+
+        // SMTP latency stays off request threads
+        this.emailDispatchExecutor = new ThreadPoolTaskExecutor();
+        this.emailDispatchExecutor.setCorePoolSize(workers);
+        this.emailDispatchExecutor.setMaxPoolSize(workers);
+        this.emailDispatchExecutor.setQueueCapacity(queueCapacity);
+        this.emailDispatchExecutor.setThreadNamePrefix("email-dispatch-");
+        this.emailDispatchExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        this.emailDispatchExecutor.setAwaitTerminationSeconds(30);
+        this.emailDispatchExecutor.initialize();
+
+        Gauge.builder("warrantyhub.mail.outbox.pending", pendingEmails, AtomicLong::get)
+                .description("Messages waiting in the email outbox at the last poll")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.mail.dispatch.queued", emailDispatchExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .description("Batches queued for the email dispatch workers")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms}")
+    public void dispatch() {
+        try {
+            int capacity = emailDispatchExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+            if (capacity == 0) {
+                return;
+            }
+
+            pendingEmails.set(emailOutboxService.countPending());
+
+            List<EmailOutbox> claimed = emailOutboxService.claimDue(capacity * batchSize);
+            for (int from = 0; from < claimed.size(); from += batchSize) {
+                List<EmailOutbox> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+                emailDispatchExecutor.execute(() -> emailOutboxService.deliverBatch(batch));
+            }
+        } catch (Exception ex) {
+            logger.error("Error dispatching email outbox: {}", ex.getMessage(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        emailDispatchExecutor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.release-interval-ms}")
+    public void releaseStaleClaims() {
+        int released = emailOutboxService.releaseStaleClaims();
+        if (released > 0) {
+            logger.warn("Released {} stale email outbox claims", released);
+        }
+    }
+}
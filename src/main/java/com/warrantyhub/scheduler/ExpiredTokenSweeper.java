@@ -0,0 +1,111 @@
+package com.warrantyhub.scheduler;
+
+import com.warrantyhub.service.AuthService;
+import com.warrantyhub.service.RefreshTokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Deletes expired refresh sessions and clears expired password reset tokens, instead of
+ * leaving them until someone happens to present them. Work is done in small batches read from
+ * the expiry indexes, with a pause between batches so the sweep never competes with requests
+ * for locks or I/O for long.
+ */
+@Component
+public class ExpiredTokenSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredTokenSweeper.class);
+
+    private final RefreshTokenService refreshTokenService;
+    private final AuthService authService;
+
+    private final AtomicLong lastRunRefreshSessions = new AtomicLong();
+    private final AtomicLong lastRunResetTokens = new AtomicLong();
+    private final Counter refreshSessionsPurged;
+    private final Counter resetTokensCleared;
+
+    @Value("${app.auth.token-sweep.batch-size}")
+    private int batchSize;
+
+    @Value("${app.auth.token-sweep.batch-pause-ms}")
+    private long batchPauseMs;
+
+    @Value("${app.auth.token-sweep.max-batches-per-run}")
+    private int maxBatchesPerRun;
+
+    @Autowired
+    public ExpiredTokenSweeper(
+            RefreshTokenService refreshTokenService,
+            AuthService authService,
+            MeterRegistry meterRegistry) {
+        this.refreshTokenService = refreshTokenService;
+        this.authService = authService;
+
+        this.refreshSessionsPurged = Counter.builder("warrantyhub.tokens.purged")
+                .tag("type", "refresh_session")
+                .description("Expired rows removed by the token sweeper")
+                .register(meterRegistry);
+        this.resetTokensCleared = Counter.builder("warrantyhub.tokens.purged")
+                .tag("type", "password_reset")
+                .description("Expired rows removed by the token sweeper")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.tokens.purged.last_run", lastRunRefreshSessions, AtomicLong::get)
+                .tag("type", "refresh_session")
+                .description("Expired rows removed by the last token sweep")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.tokens.purged.last_run", lastRunResetTokens, AtomicLong::get)
+                .tag("type", "password_reset")
+                .description("Expired rows removed by the last token sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.token-sweep.interval-ms}",
+            initialDelayString = "${app.auth.token-sweep.interval-ms}")
+    public void sweep() {
+        try {
+            long sessions = sweepInBatches(refreshTokenService::purgeExpiredSessions);
+            lastRunRefreshSessions.set(sessions);
+            refreshSessionsPurged.increment(sessions);
+
+            long resetTokens = sweepInBatches(authService::clearExpiredResetTokens);
+            lastRunResetTokens.set(resetTokens);
+            resetTokensCleared.increment(resetTokens);
+
+            if (sessions > 0 || resetTokens > 0) {
+                logger.info("Token sweep removed {} expired refresh sessions and {} expired reset tokens",
+                        sessions, resetTokens);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            logger.error("Error sweeping expired tokens: {}", ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Runs batches until one comes back short or the per-run cap is hit; whatever is left is
+     * picked up by the next run
+     */
+    private long sweepInBatches(IntUnaryOperator batch) throws InterruptedException {
+        long total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int removed = batch.applyAsInt(batchSize);
+            total += removed;
+            if (removed < batchSize) {
+                break;
+            }
+            Thread.sleep(batchPauseMs);
+        }
+        return total;
+    }
+}
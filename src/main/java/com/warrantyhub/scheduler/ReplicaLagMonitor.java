@@ -0,0 +1,100 @@
+package com.warrantyhub.scheduler;
+
+import com.warrantyhub.config.ReadReplicaRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the replica's replication lag and switches read-only traffic back to the primary while
+ * the replica is behind by more than max-lag-seconds, has stopped replicating or cannot be
+ * reached. Until the first successful check all reads go to the primary.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final long LAG_UNKNOWN = -1;
+
+    private final ReadReplicaRoutingDataSource routingDataSource;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final AtomicLong lagSeconds = new AtomicLong(LAG_UNKNOWN);
+
+    @Value("${app.datasource.replica.max-lag-seconds}")
+    private long maxLagSeconds;
+
+    @Value("${app.datasource.replica.allow-non-replicating}")
+    private boolean allowNonReplicating;
+
+    @Autowired
+    public ReplicaLagMonitor(
+            ReadReplicaRoutingDataSource routingDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            MeterRegistry meterRegistry) {
+        this.routingDataSource = routingDataSource;
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+
+        Gauge.builder("warrantyhub.datasource.replica.lag", lagSeconds, AtomicLong::get)
+                .description("Replication lag of the read replica in seconds, -1 when unknown")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.datasource.replica.available", routingDataSource,
+                        dataSource -> dataSource.isReplicaAvailable() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms}")
+    public void checkLag() {
+        long lag;
+        try {
+            lag = readLagSeconds();
+        } catch (Exception ex) {
+            logger.debug("Replica lag check failed: {}", ex.getMessage());
+            lag = LAG_UNKNOWN;
+        }
+        lagSeconds.set(lag);
+
+        boolean available = lag != LAG_UNKNOWN && lag <= maxLagSeconds;
+        if (available != routingDataSource.isReplicaAvailable()) {
+            if (available) {
+                logger.info("Routing read-only transactions to the replica (lag {}s)", lag);
+            } else {
+                logger.warn("Routing read-only transactions to the primary: replica lag is {}",
+                        lag == LAG_UNKNOWN ? "unknown" : lag + "s");
+            }
+            routingDataSource.setReplicaAvailable(available);
+        }
+    }
+
+    /**
+     * An empty status means the server is not replicating at all: a misconfigured or reset replica
+     * would serve stale data indefinitely, so it is unavailable unless allow-non-replicating is
+     * set for development setups whose replica URL points at the primary. A null lag means
+     * replication is stopped.
+     */
+    private long readLagSeconds() {
+        Long lag = replicaJdbcTemplate.query("SHOW REPLICA STATUS", rs -> {
+            if (!rs.next()) {
+                return allowNonReplicating ? 0L : null;
+            }
+            long seconds = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : seconds;
+        });
+        return lag == null ? LAG_UNKNOWN : lag;
+    }
+}
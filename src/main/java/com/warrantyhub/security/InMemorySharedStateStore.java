@@ -0,0 +1,145 @@
+package com.warrantyhub.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-node store. Buckets are spread over independently locked stripes, so concurrent
+ * requests for different keys rarely contend. Each stripe holds a bounded number of buckets.
+ * A bucket is only dropped once it has refilled completely, because a fresh bucket would start
+ * in the same state; an exhausted bucket is never evicted, so cycling through keys cannot reset
+ * a limit. When a stripe is full of partly drained buckets, new keys in it share one overflow
+ * bucket per limit until a sweep frees space.
+ */
+@Component
+@ConditionalOnProperty(name = "app.shared-state.store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySharedStateStore implements SharedStateStore {
+
+    // Expired deny-list entries are swept whenever the map grows past this
+    private static final int DENY_LIST_SWEEP_THRESHOLD = 10_000;
+    // A full stripe is swept for refilled buckets at most this often
+    private static final long BUCKET_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Stripe[] stripes;
+    private final Map<String, Instant> deniedTokens = new ConcurrentHashMap<>();
+
+    public InMemorySharedStateStore(
+            @Value("${app.rate-limit.stripes}") int stripeCount,
+            @Value("${app.rate-limit.max-keys}") int maxKeys) {
+        int count = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        int perStripe = Math.max(16, maxKeys / count);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    @Override
+    public long tryConsume(List<BucketLimit> limits) {
+        long wait = 0;
+        for (BucketLimit limit : limits) {
+            wait = Math.max(wait, tryConsume(limit));
+        }
+        return wait;
+    }
+
+    @Override
+    public void denyToken(String tokenId, Instant expiresAt) {
+        if (deniedTokens.size() > DENY_LIST_SWEEP_THRESHOLD) {
+            Instant now = Instant.now();
+            deniedTokens.values().removeIf(expiry -> expiry.isBefore(now));
+        }
+        deniedTokens.put(tokenId, expiresAt);
+    }
+
+    @Override
+    public boolean isTokenDenied(String tokenId) {
+        Instant expiresAt = deniedTokens.get(tokenId);
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    private long tryConsume(BucketLimit limit) {
+        String key = limit.getKey();
+        int capacity = limit.getCapacity();
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        long now = System.nanoTime();
+        double refillPerNano = (double) capacity / TimeUnit.SECONDS.toNanos(limit.getRefillSeconds());
+
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = stripe.newBucket(key, capacity, limit.getRefillSeconds(), now);
+            }
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedNanos) * refillPerNano);
+            bucket.updatedNanos = now;
+
+            long waitSeconds = 0;
+            if (bucket.tokens >= 1.0) {
+                bucket.tokens -= 1.0;
+            } else {
+                long waitNanos = (long) Math.ceil((1.0 - bucket.tokens) / refillPerNano);
+                waitSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos));
+            }
+            bucket.fullAtNanos = now + (long) Math.ceil((capacity - bucket.tokens) / refillPerNano);
+            return waitSeconds;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedNanos;
+        // When the bucket will be full again; from then on it is indistinguishable from a new one
+        private long fullAtNanos;
+
+        private Bucket(double tokens, long updatedNanos) {
+            this.tokens = tokens;
+            this.updatedNanos = updatedNanos;
+            this.fullAtNanos = updatedNanos;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Bucket> buckets = new HashMap<>();
+        private final Map<String, Bucket> overflow = new HashMap<>();
+        private final int maxEntries;
+        private long lastSweepNanos;
+
+        private Stripe(int maxEntries) {
+            this.maxEntries = maxEntries;
+            this.lastSweepNanos = System.nanoTime() - BUCKET_SWEEP_INTERVAL_NANOS;
+        }
+
+        /**
+         * Called with the lock held. Tracks the key if there is room, sweeping refilled buckets
+         * first when the stripe is full; otherwise returns the overflow bucket for this limit.
+         */
+        private Bucket newBucket(String key, int capacity, long refillSeconds, long now) {
+            if (buckets.size() >= maxEntries && now - lastSweepNanos >= BUCKET_SWEEP_INTERVAL_NANOS) {
+                lastSweepNanos = now;
+                buckets.values().removeIf(bucket -> bucket.fullAtNanos - now <= 0);
+                overflow.values().removeIf(bucket -> bucket.fullAtNanos - now <= 0);
+            }
+
+            if (buckets.size() < maxEntries) {
+                Bucket bucket = new Bucket(capacity, now);
+                buckets.put(key, bucket);
+                return bucket;
+            }
+            return overflow.computeIfAbsent(capacity + "/" + refillSeconds, limit -> new Bucket(capacity, now));
+        }
+    }
+}
@@ -20,6 +20,7 @@ import javax.crypto.SecretKey;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
@@ -88,6 +89,7 @@ public class JwtTokenProvider {
             Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
             String token = Jwts.builder()
+                    .setId(UUID.randomUUID().toString())
                     .setSubject(email.trim())
                     .claim("email", email.trim())
                     .claim("name", name) // Include name if available
@@ -117,6 +119,7 @@ public class JwtTokenProvider {
             Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
             String token = Jwts.builder()
+                    .setId(UUID.randomUUID().toString())
                     .setSubject(username.trim())
                     .claim("email", username.trim()) // 👈 ensure email is always present
                     .setIssuedAt(now)
@@ -244,6 +247,23 @@ public class JwtTokenProvider {
         }
     }
 
+    /**
+     * Get the token id (jti) used for revocation; null for tokens issued before ids were added
+     */
+    public String getTokenIdFromJWT(String token) {
+        try {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            return claims.getId();
+        } catch (Exception e) {
+            logger.debug("Error extracting token id from JWT token: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * IMPROVED: Get expiration date from token for frontend usage
      */
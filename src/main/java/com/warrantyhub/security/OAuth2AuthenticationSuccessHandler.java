@@ -1,8 +1,7 @@
 package com.warrantyhub.security;
 
-import com.warrantyhub.model.RefreshToken;
 import com.warrantyhub.model.User;
-import com.warrantyhub.repository.RefreshTokenRepository;
+import com.warrantyhub.service.RefreshTokenService;
 import com.warrantyhub.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
@@ -22,11 +21,8 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
-import java.util.Optional;
 
 @Component
 public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
@@ -37,7 +33,7 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
     private JwtTokenProvider tokenProvider;
 
     @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenService refreshTokenService;
 
     @Autowired
     private UserService userService;
@@ -257,30 +253,11 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
                 logger.info("✅ Created new OAuth2 user in database: {} (ID: {})", maskEmail(email), user.getId());
             }
 
-            // FIXED: Find existing refresh token or create new one to avoid constraint violation
-            RefreshToken refreshToken;
-            Optional<RefreshToken> existingTokenOptional = refreshTokenRepository.findByUser(user);
-
-            if (existingTokenOptional.isPresent()) {
-                // Update existing refresh token
-                refreshToken = existingTokenOptional.get();
-                logger.debug("📝 Updating existing refresh token for user: {}", maskEmail(email));
-            } else {
-                // Create new refresh token
-                refreshToken = new RefreshToken();
-                refreshToken.setUser(user);
-                logger.debug("🆕 Creating new refresh token for user: {}", maskEmail(email));
-            }
-
-            // Set/update token data (same for both new and existing tokens)
-            refreshToken.setToken(UUID.randomUUID().toString());
-            refreshToken.setExpiryDate(Instant.now().plusSeconds(604800)); // 7 days
-
-            // Save the token (will either INSERT new or UPDATE existing)
-            RefreshToken savedToken = refreshTokenRepository.save(refreshToken);
+            // The OAuth2 redirect cannot carry the device header, so browser logins share one session
+            String refreshToken = refreshTokenService.createRefreshToken(user, null);
 
             logger.info("✅ Refresh token saved successfully for OAuth2 user: {}", maskEmail(email));
-            return savedToken.getToken();
+            return refreshToken;
 
         } catch (DataIntegrityViolationException e) {
             // Handle any remaining constraint violations gracefully
@@ -0,0 +1,158 @@
+package com.warrantyhub.security;
+
+import com.warrantyhub.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small dedicated pool sized to the CPU instead of on request threads. When
+ * the pool's queue is full, or a hash waits too long, the caller gets a 429 straight away
+ * rather than holding a Tomcat worker while the backlog grows.
+ *
+ * Reports {@link #upgradeEncoding} for hashes below the configured cost, so Spring Security
+ * rehashes the password on the next successful login.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffloadingPasswordEncoder.class);
+
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public OffloadingPasswordEncoder(int strength, int threads, int queueCapacity, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.maxWaitMs = maxWaitMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("warrantyhub.password.hash")
+                .tag("operation", "encode")
+                .description("Time spent computing a password hash")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("warrantyhub.password.hash")
+                .tag("operation", "matches")
+                .description("Time spent computing a password hash")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("warrantyhub.password.queue.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("warrantyhub.password.rejected")
+                .description("Password hashes refused because the hashing pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.password.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+
+        logger.info("Password hashing: BCrypt cost {}, {} threads, queue {}", strength, threads, queueCapacity);
+    }
+
+    /**
+     * Picks the highest BCrypt cost whose hash still takes no longer than the target on this
+     * machine, never going below the library default of 10
+     */
+    public static int calibrateStrength(long targetMillis) {
+        int strength = MIN_STRENGTH;
+        long elapsed = timeHash(strength);
+        // Each step doubles the work
+        while (strength < MAX_STRENGTH && elapsed * 2 <= targetMillis) {
+            strength++;
+            elapsed *= 2;
+        }
+        logger.info("Calibrated BCrypt cost {} (~{} ms per hash, target {} ms)", strength, elapsed, targetMillis);
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> hash, Timer hashTimer) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many sign-in requests, please retry shortly", RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many sign-in requests, please retry shortly", RETRY_AFTER_SECONDS);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    private static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        // First run warms up the JIT
+        encoder.encode("calibration");
+        long start = System.nanoTime();
+        encoder.encode("calibration");
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,184 @@
+package com.warrantyhub.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.warrantyhub.exception.ErrorDetails;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Throttles the public endpoints that cost a BCrypt hash or a database write, per client IP
+ * and per target email, before any authentication work is done. Other requests pass straight
+ * through. The client IP is the request's remote address; behind a proxy, configure
+ * server.forward-headers-strategy so that it reflects the real client.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of(
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/auth/forgot-password"
+    );
+
+    // Credential payloads are tiny; a bigger body is rejected, since padding it must not skip the email limit
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    private final SharedStateStore sharedStateStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.rate-limit.ip.capacity}")
+    private int ipCapacity;
+
+    @Value("${app.rate-limit.ip.refill-seconds}")
+    private long ipRefillSeconds;
+
+    @Value("${app.rate-limit.email.capacity}")
+    private int emailCapacity;
+
+    @Value("${app.rate-limit.email.refill-seconds}")
+    private long emailRefillSeconds;
+
+    @Autowired
+    public RateLimitFilter(SharedStateStore sharedStateStore, ObjectMapper objectMapper) {
+        this.sharedStateStore = sharedStateStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Request body must not exceed " + MAX_BODY_BYTES + " bytes");
+            return;
+        }
+        String email = extractEmail(body);
+
+        List<SharedStateStore.BucketLimit> limits = new ArrayList<>(2);
+        limits.add(new SharedStateStore.BucketLimit(
+                "ip:" + request.getServletPath() + ":" + request.getRemoteAddr(), ipCapacity, ipRefillSeconds));
+        if (email != null) {
+            // Keyed across endpoints, so one account cannot be hammered by rotating the endpoint
+            limits.add(new SharedStateStore.BucketLimit("email:" + email, emailCapacity, emailRefillSeconds));
+        }
+
+        long retryAfter = sharedStateStore.tryConsume(limits);
+        if (retryAfter > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            writeError(request, response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests, please retry later");
+            return;
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException ex) {
+            // Malformed bodies are left for request validation to reject
+            return null;
+        }
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        ErrorDetails errorDetails = new ErrorDetails(
+                new Date(),
+                message,
+                "uri=" + request.getRequestURI(),
+                status.value());
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    }
+
+    /**
+     * Replays the body that was read to find the email
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final ServletInputStream inputStream;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            InputStream in = new ByteArrayInputStream(body);
+            this.inputStream = new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The body was read blocking to find the email; the auth endpoints read their bodies synchronously
+                    throw new IllegalStateException("Non-blocking reads are not supported for rate-limited auth requests: "
+                            + "the body has already been consumed with blocking I/O");
+                }
+
+                @Override
+                public int read() throws IOException {
+                    int b = in.read();
+                    finished = b == -1;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = in.read(b, off, len);
+                    finished = read == -1;
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        }
+    }
+}
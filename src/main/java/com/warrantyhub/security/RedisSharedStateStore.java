@@ -0,0 +1,167 @@
+package com.warrantyhub.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Store shared by all nodes through Redis. Each bucket is updated atomically by a Lua script
+ * using the server clock, and the buckets of one request go out in a single pipelined round
+ * trip. Deny-list lookups, which happen on every authenticated request, go through a local
+ * near-cache: revoked ids are kept (a revocation never goes away), while "not revoked" answers
+ * are kept only briefly, which bounds how long another node's logout takes to apply here.
+ *
+ * If Redis cannot be reached, requests are let through rather than failing the API.
+ */
+@Component
+@ConditionalOnProperty(name = "app.shared-state.store", havingValue = "redis")
+public class RedisSharedStateStore implements SharedStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisSharedStateStore.class);
+
+    // KEYS[1] bucket; ARGV[1] capacity, ARGV[2] full refill time in ms. Returns the wait in ms, 0 if allowed.
+    private static final byte[] TOKEN_BUCKET_SCRIPT = ("""
+            local capacity = tonumber(ARGV[1])
+            local period = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 't', 'u')
+            local tokens = tonumber(state[1]) or capacity
+            local updated = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + (now - updated) * capacity / period)
+            local wait = 0
+            if tokens >= 1 then
+              tokens = tokens - 1
+            else
+              wait = math.ceil((1 - tokens) * period / capacity)
+            end
+            redis.call('HSET', KEYS[1], 't', tostring(tokens), 'u', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], period)
+            return wait
+            """).getBytes(StandardCharsets.UTF_8);
+
+    private static final long DENIED = Long.MIN_VALUE;
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final long negativeCacheNanos;
+    private final ReentrantLock nearCacheLock = new ReentrantLock();
+    private final LinkedHashMap<String, Long> nearCache;
+
+    @Autowired
+    public RedisSharedStateStore(
+            StringRedisTemplate redisTemplate,
+            @Value("${app.shared-state.redis.key-prefix}") String keyPrefix,
+            @Value("${app.shared-state.redis.near-cache-size}") int nearCacheSize,
+            @Value("${app.shared-state.redis.negative-cache-ms}") long negativeCacheMs) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.negativeCacheNanos = TimeUnit.MILLISECONDS.toNanos(negativeCacheMs);
+        // Value is the nanoTime until which "not denied" holds; DENIED marks a revoked id
+        this.nearCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > nearCacheSize;
+            }
+        };
+    }
+
+    @Override
+    public long tryConsume(List<BucketLimit> limits) {
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (BucketLimit limit : limits) {
+                    eval(connection, limit);
+                }
+                return null;
+            });
+
+            long waitMs = 0;
+            for (Object result : results) {
+                waitMs = Math.max(waitMs, ((Number) result).longValue());
+            }
+            return waitMs == 0 ? 0 : Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMs + 999));
+        } catch (Exception ex) {
+            logger.warn("Rate limit store unavailable, allowing request: {}", ex.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public void denyToken(String tokenId, Instant expiresAt) {
+        Duration ttl = Duration.between(Instant.now(), expiresAt);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        putNearCache(tokenId, DENIED);
+        try {
+            redisTemplate.opsForValue().set(denyKey(tokenId), "1", ttl);
+        } catch (Exception ex) {
+            // Logout still succeeds; this node keeps rejecting the token through its near cache
+            logger.error("Token deny-list unavailable, token {} is only revoked on this node: {}", tokenId, ex.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isTokenDenied(String tokenId) {
+        long now = System.nanoTime();
+        Long cached = getNearCache(tokenId);
+        if (cached != null && (cached == DENIED || cached - now > 0)) {
+            return cached == DENIED;
+        }
+
+        try {
+            boolean denied = Boolean.TRUE.equals(redisTemplate.hasKey(denyKey(tokenId)));
+            putNearCache(tokenId, denied ? DENIED : now + negativeCacheNanos);
+            return denied;
+        } catch (Exception ex) {
+            logger.warn("Token deny-list unavailable, accepting token: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private void eval(RedisConnection connection, BucketLimit limit) {
+        byte[] key = (keyPrefix + "rl:" + limit.getKey()).getBytes(StandardCharsets.UTF_8);
+        byte[] capacity = String.valueOf(limit.getCapacity()).getBytes(StandardCharsets.UTF_8);
+        byte[] periodMs = String.valueOf(TimeUnit.SECONDS.toMillis(limit.getRefillSeconds())).getBytes(StandardCharsets.UTF_8);
+        connection.scriptingCommands().eval(TOKEN_BUCKET_SCRIPT, ReturnType.INTEGER, 1, key, capacity, periodMs);
+    }
+
+    private String denyKey(String tokenId) {
+        return keyPrefix + "deny:" + tokenId;
+    }
+
+    private Long getNearCache(String tokenId) {
+        nearCacheLock.lock();
+        try {
+            return nearCache.get(tokenId);
+        } finally {
+            nearCacheLock.unlock();
+        }
+    }
+
+    private void putNearCache(String tokenId, long value) {
+        nearCacheLock.lock();
+        try {
+            nearCache.put(tokenId, value);
+        } finally {
+            nearCacheLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.warrantyhub.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * State that has to be shared by every API node for limits and revocation to hold: rate-limit
+ * buckets and the deny-list of revoked access tokens. The in-memory implementation is enough
+ * for a single node; with several nodes, select the Redis implementation with
+ * app.shared-state.store=redis.
+ */
+public interface SharedStateStore {
+
+    /**
+     * Takes one token from each bucket. Returns 0 when every bucket had a token, otherwise the
+     * longest wait in seconds until the exhausted ones refill.
+     */
+    long tryConsume(List<BucketLimit> limits);
+
+    /**
+     * Rejects the access token with this id until it would have expired anyway
+     */
+    void denyToken(String tokenId, Instant expiresAt);
+
+    boolean isTokenDenied(String tokenId);
+
+    /**
+     * A bucket of {@code capacity} tokens that refills completely in {@code refillSeconds}
+     */
+    final class BucketLimit {
+        private final String key;
+        private final int capacity;
+        private final long refillSeconds;
+
+        public BucketLimit(String key, int capacity, long refillSeconds) {
+            this.key = key;
+            this.capacity = capacity;
+            this.refillSeconds = refillSeconds;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public long getRefillSeconds() {
+            return refillSeconds;
+        }
+    }
+}
@@ -10,11 +10,12 @@ import com.warrantyhub.dto.response.UserProfileDTO;
 import org.springframework.security.core.Authentication;
 
 public interface AuthService {
-    AuthResponse register(RegisterRequest registerRequest);
-    AuthResponse login(LoginRequest loginRequest);
+    AuthResponse register(RegisterRequest registerRequest, String deviceId);
+    AuthResponse login(LoginRequest loginRequest, String deviceId);
     TokenRefreshResponse refreshToken(String refreshToken);
     ApiResponse requestPasswordReset(String email);
     ApiResponse resetPassword(String token, String newPassword);
-    ApiResponse logout();
+    int clearExpiredResetTokens(int limit);
+    ApiResponse logout(String deviceId, String accessToken);
     UserProfileDTO getProfile(Authentication authentication);
 }
@@ -0,0 +1,100 @@
+package com.warrantyhub.service;
+
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.User;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * In-memory inverted index over the name, manufacturer, model and serial number of each user's
+ * devices. A user's index is built from the database on their first search and then kept up to
+ * date by the device write paths.
+ */
+public interface DeviceSearchIndex {
+
+    /**
+     * Returns the devices matching every term of the query, best matches first.
+     */
+    SearchResult search(User user, String query, int offset, int limit);
+
+    /**
+     * Adds or replaces a device; a no-op when its owner's index is not loaded.
+     */
+    void index(Device device);
+
+    void remove(Long userId, Long deviceId);
+
+    final class Hit {
+        private final Long id;
+        private final String name;
+        private final String manufacturer;
+        private final String model;
+        private final String serialNumber;
+        private final String warrantyStatus;
+        private final LocalDate warrantyEndDate;
+        private final int score;
+
+        public Hit(Long id, String name, String manufacturer, String model, String serialNumber,
+                   String warrantyStatus, LocalDate warrantyEndDate, int score) {
+            this.id = id;
+            this.name = name;
+            this.manufacturer = manufacturer;
+            this.model = model;
+            this.serialNumber = serialNumber;
+            this.warrantyStatus = warrantyStatus;
+            this.warrantyEndDate = warrantyEndDate;
+            this.score = score;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getManufacturer() {
+            return manufacturer;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public String getSerialNumber() {
+            return serialNumber;
+        }
+
+        public String getWarrantyStatus() {
+            return warrantyStatus;
+        }
+
+        public LocalDate getWarrantyEndDate() {
+            return warrantyEndDate;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+
+    final class SearchResult {
+        private final List<Hit> hits;
+        private final int totalHits;
+
+        public SearchResult(List<Hit> hits, int totalHits) {
+            this.hits = hits;
+            this.totalHits = totalHits;
+        }
+
+        public List<Hit> getHits() {
+            return hits;
+        }
+
+        public int getTotalHits() {
+            return totalHits;
+        }
+    }
+}
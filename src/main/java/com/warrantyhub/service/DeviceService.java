@@ -1,15 +1,21 @@
 package com.warrantyhub.service;
 
+import com.warrantyhub.dto.request.DeviceFilterRequest;
 import com.warrantyhub.dto.request.DeviceRequest;
 import com.warrantyhub.dto.response.ApiResponse;
 import com.warrantyhub.dto.response.DeviceDTO;
 import com.warrantyhub.dto.response.DeviceListResponse;
+import com.warrantyhub.dto.response.DeviceSearchResponse;
 import org.springframework.security.core.Authentication;
 
+import java.util.Set;
+
 public interface DeviceService {
-    DeviceListResponse getAllDevicesByUser(Authentication authentication);
+    DeviceListResponse getAllDevicesByUser(DeviceFilterRequest filter, Authentication authentication);
     DeviceDTO getDeviceById(Long id, Authentication authentication);
     DeviceDTO createDevice(DeviceRequest deviceRequest, Authentication authentication);
-    DeviceDTO updateDevice(Long id, DeviceRequest deviceRequest, Authentication authentication);
+    DeviceDTO updateDevice(Long id, DeviceRequest deviceRequest, Set<Long> expectedVersions, Authentication authentication);
     ApiResponse deleteDevice(Long id, Authentication authentication);
+    DeviceListResponse lookupBySerialNumber(String serialNumber, String manufacturer, Authentication authentication);
+    DeviceSearchResponse searchDevices(String query, int page, int size, Authentication authentication);
 }
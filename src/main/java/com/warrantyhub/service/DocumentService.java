@@ -5,9 +5,34 @@ import com.warrantyhub.dto.response.DocumentDTO;
 import org.springframework.core.io.Resource;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface DocumentService {
     DocumentDTO uploadDocument(Long deviceId, MultipartFile file, Authentication authentication);
-    Resource downloadDocument(Long documentId, Authentication authentication);
+    DocumentDownload downloadDocument(Long documentId, Authentication authentication);
     ApiResponse deleteDocument(Long deviceId, Long documentId, Authentication authentication);
+    StreamingResponseBody exportDeviceDocuments(Long deviceId, Authentication authentication);
+    StreamingResponseBody exportAllDocuments(Authentication authentication);
+
+    /**
+     * Document content together with the media type recorded at upload, which a compressed
+     * file's inflating stream cannot report itself
+     */
+    final class DocumentDownload {
+        private final Resource resource;
+        private final String contentType;
+
+        public DocumentDownload(Resource resource, String contentType) {
+            this.resource = resource;
+            this.contentType = contentType;
+        }
+
+        public Resource getResource() {
+            return resource;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
 }
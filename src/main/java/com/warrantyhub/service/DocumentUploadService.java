@@ -0,0 +1,18 @@
+package com.warrantyhub.service;
+
+import com.warrantyhub.dto.request.DocumentUploadInitRequest;
+import com.warrantyhub.dto.response.ApiResponse;
+import com.warrantyhub.dto.response.DocumentDTO;
+import com.warrantyhub.dto.response.DocumentUploadDTO;
+import org.springframework.security.core.Authentication;
+
+import java.io.InputStream;
+
+public interface DocumentUploadService {
+    DocumentUploadDTO initiateUpload(Long deviceId, DocumentUploadInitRequest request, Authentication authentication);
+    DocumentUploadDTO uploadChunk(Long deviceId, String uploadId, long offset, InputStream content, Authentication authentication);
+    DocumentUploadDTO getUploadStatus(Long deviceId, String uploadId, Authentication authentication);
+    DocumentDTO completeUpload(Long deviceId, String uploadId, Authentication authentication);
+    ApiResponse abortUpload(Long deviceId, String uploadId, Authentication authentication);
+    int purgeExpiredUploads();
+}
@@ -0,0 +1,15 @@
+package com.warrantyhub.service;
+
+import com.warrantyhub.model.EmailOutbox;
+
+import java.util.List;
+import java.util.Map;
+
+public interface EmailOutboxService {
+    void enqueue(String recipient, String subject, String template, Map<String, Object> variables);
+    List<EmailOutbox> claimDue(int limit);
+    void deliver(EmailOutbox email);
+    void deliverBatch(List<EmailOutbox> emails);
+    long countPending();
+    int releaseStaleClaims();
+}
@@ -0,0 +1,9 @@
+package com.warrantyhub.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface EmailTemplateRenderer {
+    String render(String template, Map<String, Object> variables);
+    List<String> renderBatch(String template, List<Map<String, Object>> variablesPerRecipient);
+}
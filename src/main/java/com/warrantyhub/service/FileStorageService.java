@@ -0,0 +1,48 @@
+package com.warrantyhub.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public interface FileStorageService {
+
+    /**
+     * Writes the content to the target path, compressing it when the file type is eligible
+     * and a trial compression of the first block pays off.
+     */
+    StoredFile store(InputStream content, Path target, String fileType, String fileName) throws IOException;
+
+    /**
+     * Moves an already written file into place, compressing it on the way when eligible.
+     */
+    StoredFile storeFile(Path source, Path target, String fileType, String fileName) throws IOException;
+
+    /**
+     * Opens a stored file for reading, inflating it on the fly when it was stored compressed.
+     */
+    InputStream openForRead(Path path, boolean compressed) throws IOException;
+
+    final class StoredFile {
+        private final boolean compressed;
+        private final long originalSize;
+        private final long storedSize;
+
+        public StoredFile(boolean compressed, long originalSize, long storedSize) {
+            this.compressed = compressed;
+            this.originalSize = originalSize;
+            this.storedSize = storedSize;
+        }
+
+        public boolean isCompressed() {
+            return compressed;
+        }
+
+        public long getOriginalSize() {
+            return originalSize;
+        }
+
+        public long getStoredSize() {
+            return storedSize;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.warrantyhub.service;
+
+import jakarta.mail.internet.MimeMessage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+public interface MailTransportService {
+    MimeMessage createMimeMessage();
+    Duration reserveSendSlot(String recipient);
+    Map<MimeMessage, Exception> sendBatch(List<MimeMessage> messages);
+}
@@ -3,10 +3,15 @@ package com.warrantyhub.service;
 import com.warrantyhub.dto.request.MaintenanceRecordRequest;
 import com.warrantyhub.dto.response.ApiResponse;
 import com.warrantyhub.dto.response.DeviceDTO;
+import com.warrantyhub.dto.response.PartUsageDTO;
 import org.springframework.security.core.Authentication;
 
+import java.util.List;
+import java.util.Set;
+
 public interface MaintenanceService {
     DeviceDTO addMaintenanceRecord(Long deviceId, MaintenanceRecordRequest request, Authentication authentication);
-    DeviceDTO updateMaintenanceRecord(Long deviceId, Long recordId, MaintenanceRecordRequest request, Authentication authentication);
+    DeviceDTO updateMaintenanceRecord(Long deviceId, Long recordId, MaintenanceRecordRequest request, Set<Long> expectedVersions, Authentication authentication);
     ApiResponse deleteMaintenanceRecord(Long deviceId, Long recordId, Authentication authentication);
+    List<PartUsageDTO> getPartUsage(Authentication authentication);
 }
@@ -0,0 +1,37 @@
+package com.warrantyhub.service;
+
+import com.warrantyhub.model.User;
+
+public interface RefreshTokenService {
+    String createRefreshToken(User user, String deviceId);
+    RotatedToken rotateRefreshToken(String refreshToken);
+    void revokeRefreshTokens(User user, String deviceId);
+    int purgeExpiredSessions(int limit);
+
+    /**
+     * Result of a refresh: the session owner and the token that replaces the presented one
+     */
+    final class RotatedToken {
+        private final Long userId;
+        private final String email;
+        private final String refreshToken;
+
+        public RotatedToken(Long userId, String email, String refreshToken) {
+            this.userId = userId;
+            this.email = email;
+            this.refreshToken = refreshToken;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
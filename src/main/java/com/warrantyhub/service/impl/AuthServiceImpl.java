@@ -7,19 +7,20 @@ import com.warrantyhub.dto.response.AuthResponse;
 import com.warrantyhub.dto.response.TokenRefreshResponse;
 import com.warrantyhub.dto.response.UserDTO;
 import com.warrantyhub.dto.response.UserProfileDTO;
-import com.warrantyhub.model.RefreshToken;
 import com.warrantyhub.model.User;
 import com.warrantyhub.model.UserPreferences;
 import com.warrantyhub.exception.BadRequestException;
 import com.warrantyhub.exception.ResourceNotFoundException;
 import com.warrantyhub.exception.UnauthorizedException;
-import com.warrantyhub.repository.RefreshTokenRepository;
 import com.warrantyhub.repository.UserRepository;
 import com.warrantyhub.security.JwtTokenProvider;
+import com.warrantyhub.security.SharedStateStore;
 import com.warrantyhub.service.AuthService;
 import com.warrantyhub.service.EmailService;
+import com.warrantyhub.service.RefreshTokenService;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -27,7 +28,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,9 +41,10 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenService refreshTokenService;
     private final ModelMapper modelMapper;
     private final EmailService emailService;
+    private final SharedStateStore sharedStateStore;
 
     @Autowired
     public AuthServiceImpl(
@@ -49,21 +52,23 @@ public class AuthServiceImpl implements AuthService {
             PasswordEncoder passwordEncoder,
             AuthenticationManager authenticationManager,
             JwtTokenProvider tokenProvider,
-            RefreshTokenRepository refreshTokenRepository,
+            RefreshTokenService refreshTokenService,
             ModelMapper modelMapper,
-            EmailService emailService) {
+            EmailService emailService,
+            SharedStateStore sharedStateStore) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
-        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenService = refreshTokenService;
         this.modelMapper = modelMapper;
         this.emailService = emailService;
+        this.sharedStateStore = sharedStateStore;
     }
 
     @Override
     @Transactional
-    public AuthResponse register(RegisterRequest registerRequest) {
+    public AuthResponse register(RegisterRequest registerRequest, String deviceId) {
         // Check if email already exists
         if (userRepository.existsByEmail(registerRequest.getEmail())) {
             throw new BadRequestException("Email is already taken");
@@ -97,7 +102,7 @@ public class AuthServiceImpl implements AuthService {
         String jwt = tokenProvider.generateToken(authentication);
 
         // Create refresh token
-        RefreshToken refreshToken = createRefreshToken(savedUser);
+        String refreshToken = refreshTokenService.createRefreshToken(savedUser, deviceId);
 
         // Send welcome email
         emailService.sendWelcomeEmail(savedUser);
@@ -116,12 +121,12 @@ public class AuthServiceImpl implements AuthService {
         userDTO.setName(userProfileDTO.getName());
         userDTO.setEmail(userProfileDTO.getEmail());
 
-        return new AuthResponse(true, userDTO, jwt);
+        return new AuthResponse(true, userDTO, jwt, refreshToken);
     }
 
     @Override
     @Transactional
-    public AuthResponse login(LoginRequest loginRequest) {
+    public AuthResponse login(LoginRequest loginRequest, String deviceId) {
         Authentication authentication;
         try {
             // Authenticate user
@@ -145,7 +150,7 @@ public class AuthServiceImpl implements AuthService {
         String jwt = tokenProvider.generateToken(authentication);
 
         // Create refresh token
-        RefreshToken refreshToken = createRefreshToken(user);
+        String refreshToken = refreshTokenService.createRefreshToken(user, deviceId);
 
         // Return response
         UserProfileDTO userProfileDTO = new UserProfileDTO();
@@ -161,20 +166,14 @@ public class AuthServiceImpl implements AuthService {
         userDTO.setName(userProfileDTO.getName());
         userDTO.setEmail(userProfileDTO.getEmail());
 
-        return new AuthResponse(true, userDTO, jwt);
+        return new AuthResponse(true, userDTO, jwt, refreshToken);
     }
 
     @Override
-    @Transactional
     public TokenRefreshResponse refreshToken(String refreshToken) {
-        return refreshTokenRepository.findByToken(refreshToken)
-                .map(this::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    String token = tokenProvider.generateTokenFromUsername(user.getEmail());
-                    return new TokenRefreshResponse(true, token, refreshToken);
-                })
-                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        RefreshTokenService.RotatedToken rotated = refreshTokenService.rotateRefreshToken(refreshToken);
+        String token = tokenProvider.generateTokenFromUsername(rotated.getEmail());
+        return new TokenRefreshResponse(true, token, rotated.getRefreshToken());
     }
 
     @Override
@@ -214,9 +213,29 @@ public class AuthServiceImpl implements AuthService {
         return new ApiResponse(true, "Password reset successful");
     }
 
+    /**
+     * Clears one batch of expired reset tokens, selected through the expiry index. The users are
+     * updated one by one (sent as a JDBC batch) so only their cache entries are invalidated.
+     */
     @Override
     @Transactional
-    public ApiResponse logout() {
+    public int clearExpiredResetTokens(int limit) {
+        Instant now = Instant.now();
+        List<Long> ids = userRepository.findIdsWithResetTokenExpiredBefore(now, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<User> users = userRepository.findByIdInWithResetTokenExpiredBefore(ids, now);
+        for (User user : users) {
+            user.setResetPasswordToken(null);
+            user.setResetPasswordTokenExpiry(null);
+        }
+        return users.size();
+    }
+
+    @Override
+    @Transactional
+    public ApiResponse logout(String deviceId, String accessToken) {
         // Get current user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
@@ -224,7 +243,16 @@ public class AuthServiceImpl implements AuthService {
         // Delete refresh token
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        refreshTokenRepository.deleteByUser(user);
+        refreshTokenService.revokeRefreshTokens(user, deviceId);
+
+        // Reject the presented access token on every node until it expires
+        if (accessToken != null) {
+            String tokenId = tokenProvider.getTokenIdFromJWT(accessToken);
+            Date expiresAt = tokenProvider.getExpirationDateFromJWT(accessToken);
+            if (tokenId != null && expiresAt != null) {
+                sharedStateStore.denyToken(tokenId, expiresAt.toInstant());
+            }
+        }
 
         return new ApiResponse(true, "Logout successful");
     }
@@ -255,33 +283,4 @@ public class AuthServiceImpl implements AuthService {
 
         return profileDTO;
     }
-
-    private RefreshToken createRefreshToken(User user) {
-        Optional<RefreshToken> existingToken = refreshTokenRepository.findByUser(user);
-
-        RefreshToken refreshToken;
-        if (existingToken.isPresent()) {
-            refreshToken = existingToken.get();
-            // Update the existing token's properties
-            refreshToken.setToken(UUID.randomUUID().toString());
-            refreshToken.setExpiryDate(Instant.now().plusSeconds(604800)); // 7 days
-        } else {
-            // Create a new token if none exists
-            refreshToken = new RefreshToken();
-            refreshToken.setUser(user);
-            refreshToken.setToken(UUID.randomUUID().toString());
-            refreshToken.setExpiryDate(Instant.now().plusSeconds(604800)); // 7 days
-        }
-
-        // Save (this will update if existing, insert if new)
-        return refreshTokenRepository.save(refreshToken);
-    }
-
-    private RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
-            throw new UnauthorizedException("Refresh token has expired. Please login again");
-        }
-        return token;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,461 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.service.DeviceSearchIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Each word of a device is indexed under its prefixes (up to {@link #MAX_PREFIX_LENGTH}
+ * characters) and its trigrams, so a query term finds devices where it starts a word or, from
+ * three characters on, appears anywhere inside one. Candidates from the postings are then scored
+ * against the stored words: an exact word beats a prefix, which beats an infix, weighted by field.
+ *
+ * Indexes are per user, built from the primary database on first use, bounded in number (least
+ * recently used are dropped) and rebuilt after ttl-seconds so changes made on other nodes show up.
+ * Changes made on this node while an index is being built are replayed onto it once it is built.
+ */
+@Service
+public final class DeviceSearchIndexImpl implements DeviceSearchIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_PREFIX_LENGTH = 12;
+    private static final int GRAM_LENGTH = 3;
+    private static final int MAX_QUERY_TERMS = 8;
+
+    // name, manufacturer, model, serial number
+    private static final int[] FIELD_WEIGHTS = {4, 2, 3, 3};
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int INFIX = 1;
+
+    private final DeviceRepository deviceRepository;
+    private final TransactionTemplate primaryReadTemplate;
+    private final Timer searchTimer;
+    private final ReentrantLock tenantsLock = new ReentrantLock();
+    private final Map<Long, TenantIndex> tenants;
+    // Guarded by tenantsLock: changes to record for users whose index is being built
+    private final Map<Long, PendingLoad> pendingLoads = new HashMap<>();
+
+    @Value("${app.search.devices.ttl-seconds}")
+    private long ttlSeconds;
+
+    @Autowired
+    public DeviceSearchIndexImpl(
+            DeviceRepository deviceRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.search.devices.max-users}") int maxUsers) {
+        this.deviceRepository = deviceRepository;
+        // A new read-write transaction is routed to the primary, so a lagging replica cannot hide recent changes
+        this.primaryReadTemplate = new TransactionTemplate(transactionManager);
+        this.primaryReadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tenants = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TenantIndex> eldest) {
+                return size() > maxUsers;
+            }
+        };
+
+        this.searchTimer = Timer.builder("warrantyhub.devices.search")
+                .description("Device searches answered from the in-memory index, including index loads")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.devices.search.indexes", this, DeviceSearchIndexImpl::loadedIndexes)
+                .description("Per-user device search indexes held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SearchResult search(User user, String query, int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<String> terms = queryTerms(query);
+            if (terms.isEmpty()) {
+                return new SearchResult(Collections.emptyList(), 0);
+            }
+            List<Hit> hits = getOrLoad(user).search(terms);
+            int from = Math.min(offset, hits.size());
+            int to = Math.min(from + limit, hits.size());
+            return new SearchResult(new ArrayList<>(hits.subList(from, to)), hits.size());
+        } finally {
+            searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void index(Device device) {
+        Entry entry = new Entry(device);
+        TenantIndex tenant = recordChange(device.getUser().getId(), new PendingChange(entry.id(), entry));
+        if (tenant != null) {
+            tenant.put(entry);
+        }
+    }
+
+    @Override
+    public void remove(Long userId, Long deviceId) {
+        TenantIndex tenant = recordChange(userId, new PendingChange(deviceId, null));
+        if (tenant != null) {
+            tenant.remove(deviceId);
+        }
+    }
+
+    /**
+     * Returns the user's current index, if any, and records the change for every build of that
+     * user's index in progress, which may or may not have read it yet.
+     */
+    private TenantIndex recordChange(Long userId, PendingChange change) {
+        tenantsLock.lock();
+        try {
+            PendingLoad pending = pendingLoads.get(userId);
+            if (pending != null) {
+                pending.changes.add(change);
+            }
+            return tenants.get(userId);
+        } finally {
+            tenantsLock.unlock();
+        }
+    }
+
+    /**
+     * Loads outside the lock so one user's rebuild does not hold up everyone else's searches.
+     * Changes recorded while loading are replayed onto the new index before it is installed, and
+     * it is only installed if no index built later is already in place.
+     */
+    private TenantIndex getOrLoad(User user) {
+        Long userId = user.getId();
+        long now = System.nanoTime();
+        PendingLoad pending;
+
+        tenantsLock.lock();
+        try {
+            TenantIndex tenant = tenants.get(userId);
+            if (tenant != null && now - tenant.loadedAt < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+                return tenant;
+            }
+            pending = pendingLoads.computeIfAbsent(userId, id -> new PendingLoad());
+            pending.loaders++;
+        } finally {
+            tenantsLock.unlock();
+        }
+
+        TenantIndex loaded = new TenantIndex(now);
+        try {
+            primaryReadTemplate.executeWithoutResult(status -> {
+                for (Device device : deviceRepository.findByUser(user)) {
+                    loaded.put(new Entry(device));
+                }
+            });
+        } catch (RuntimeException ex) {
+            finishLoad(userId, pending);
+            throw ex;
+        }
+
+        tenantsLock.lock();
+        try {
+            for (PendingChange change : pending.changes) {
+                if (change.entry != null) {
+                    loaded.put(change.entry);
+                } else {
+                    loaded.remove(change.deviceId);
+                }
+            }
+            finishLoad(userId, pending);
+
+            TenantIndex current = tenants.get(userId);
+            if (current != null && current.loadedAt - loaded.loadedAt > 0) {
+                return current;
+            }
+            tenants.put(userId, loaded);
+            return loaded;
+        } finally {
+            tenantsLock.unlock();
+        }
+    }
+
+    private void finishLoad(Long userId, PendingLoad pending) {
+        tenantsLock.lock();
+        try {
+            if (--pending.loaders == 0) {
+                pendingLoads.remove(userId, pending);
+            }
+        } finally {
+            tenantsLock.unlock();
+        }
+    }
+
+    private int loadedIndexes() {
+        tenantsLock.lock();
+        try {
+            return tenants.size();
+        } finally {
+            tenantsLock.unlock();
+        }
+    }
+
+    private static List<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query != null) {
+            for (String word : WORD_SEPARATOR.split(query.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty() && terms.size() < MAX_QUERY_TERMS) {
+                    terms.add(word);
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static String[] words(String value) {
+        if (value == null || value.isBlank()) {
+            return new String[0];
+        }
+        return WORD_SEPARATOR.splitAsStream(value.toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Serial numbers are also indexed without their separators, so "ab12" finds "AB-12-X".
+     */
+    private static String[] serialWords(String serialNumber) {
+        String[] parts = words(serialNumber);
+        if (parts.length < 2) {
+            return parts;
+        }
+        String[] all = Arrays.copyOf(parts, parts.length + 1);
+        all[parts.length] = String.join("", parts);
+        return all;
+    }
+
+    private static final class Entry {
+        private final Hit snapshot;
+        private final String[][] fieldWords;
+
+        private Entry(Device device) {
+            this.snapshot = new Hit(device.getId(), device.getName(), device.getManufacturer(), device.getModel(),
+                    device.getSerialNumber(), device.getWarrantyStatus(), device.getWarrantyEndDate(), 0);
+            this.fieldWords = new String[][]{
+                    words(device.getName()),
+                    words(device.getManufacturer()),
+                    words(device.getModel()),
+                    serialWords(device.getSerialNumber())
+            };
+        }
+
+        private Long id() {
+            return snapshot.getId();
+        }
+
+        private int score(String term) {
+            int best = 0;
+            for (int field = 0; field < fieldWords.length; field++) {
+                for (String word : fieldWords[field]) {
+                    int match = word.equals(term) ? EXACT
+                            : word.startsWith(term) ? PREFIX
+                            : term.length() >= GRAM_LENGTH && word.contains(term) ? INFIX
+                            : 0;
+                    best = Math.max(best, match * FIELD_WEIGHTS[field]);
+                }
+            }
+            return best;
+        }
+
+        private Hit toHit(int score) {
+            return new Hit(snapshot.getId(), snapshot.getName(), snapshot.getManufacturer(), snapshot.getModel(),
+                    snapshot.getSerialNumber(), snapshot.getWarrantyStatus(), snapshot.getWarrantyEndDate(), score);
+        }
+
+        private Set<String> prefixKeys() {
+            Set<String> keys = new HashSet<>();
+            for (String[] words : fieldWords) {
+                for (String word : words) {
+                    for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX_LENGTH); length++) {
+                        keys.add(word.substring(0, length));
+                    }
+                }
+            }
+            return keys;
+        }
+
+        private Set<String> gramKeys() {
+            Set<String> keys = new HashSet<>();
+            for (String[] words : fieldWords) {
+                for (String word : words) {
+                    for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+                        keys.add(word.substring(i, i + GRAM_LENGTH));
+                    }
+                }
+            }
+            return keys;
+        }
+    }
+
+    private static final class PendingChange {
+        private final Long deviceId;
+        // Null for a removal
+        private final Entry entry;
+
+        private PendingChange(Long deviceId, Entry entry) {
+            this.deviceId = deviceId;
+            this.entry = entry;
+        }
+    }
+
+    private static final class PendingLoad {
+        private final List<PendingChange> changes = new ArrayList<>();
+        private int loaders;
+    }
+
+    private static final class TenantIndex {
+        private final long loadedAt;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final Map<String, Set<Long>> prefixPostings = new HashMap<>();
+        private final Map<String, Set<Long>> gramPostings = new HashMap<>();
+
+        private TenantIndex(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        private void put(Entry entry) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(entry.id());
+                entries.put(entry.id(), entry);
+                for (String key : entry.prefixKeys()) {
+                    prefixPostings.computeIfAbsent(key, k -> new HashSet<>()).add(entry.id());
+                }
+                for (String key : entry.gramKeys()) {
+                    gramPostings.computeIfAbsent(key, k -> new HashSet<>()).add(entry.id());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(Long deviceId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(deviceId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(Long deviceId) {
+            Entry old = entries.remove(deviceId);
+            if (old == null) {
+                return;
+            }
+            for (String key : old.prefixKeys()) {
+                removePosting(prefixPostings, key, deviceId);
+            }
+            for (String key : old.gramKeys()) {
+                removePosting(gramPostings, key, deviceId);
+            }
+        }
+
+        private static void removePosting(Map<String, Set<Long>> postings, String key, Long deviceId) {
+            Set<Long> ids = postings.get(key);
+            if (ids != null && ids.remove(deviceId) && ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+
+        private List<Hit> search(List<String> terms) {
+            List<Hit> hits = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                Set<Long> candidates = null;
+                for (String term : terms) {
+                    Set<Long> termCandidates = candidates(term);
+                    if (candidates == null) {
+                        candidates = termCandidates;
+                    } else {
+                        candidates.retainAll(termCandidates);
+                    }
+                    if (candidates.isEmpty()) {
+                        return hits;
+                    }
+                }
+
+                for (Long id : candidates) {
+                    Entry entry = entries.get(id);
+                    int total = 0;
+                    for (String term : terms) {
+                        int score = entry.score(term);
+                        if (score == 0) {
+                            total = 0;
+                            break;
+                        }
+                        total += score;
+                    }
+                    if (total > 0) {
+                        hits.add(entry.toHit(total));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            hits.sort(Comparator.comparingInt(Hit::getScore).reversed()
+                    .thenComparing(hit -> hit.getName() == null ? "" : hit.getName(), String.CASE_INSENSITIVE_ORDER)
+                    .thenComparing(Hit::getId));
+            return hits;
+        }
+
+        /**
+         * Devices with a word starting with the term, plus, for terms of three characters or
+         * more, devices holding all of its trigrams. Both are supersets that scoring narrows down.
+         */
+        private Set<Long> candidates(String term) {
+            String prefix = term.length() > MAX_PREFIX_LENGTH ? term.substring(0, MAX_PREFIX_LENGTH) : term;
+            Set<Long> result = new HashSet<>(prefixPostings.getOrDefault(prefix, Collections.emptySet()));
+
+            if (term.length() >= GRAM_LENGTH) {
+                Set<Long> infix = null;
+                for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+                    Set<Long> ids = gramPostings.get(term.substring(i, i + GRAM_LENGTH));
+                    if (ids == null) {
+                        infix = null;
+                        break;
+                    }
+                    if (infix == null) {
+                        infix = new HashSet<>(ids);
+                    } else {
+                        infix.retainAll(ids);
+                    }
+                }
+                if (infix != null) {
+                    result.addAll(infix);
+                }
+            }
+            return result;
+        }
+    }
+}
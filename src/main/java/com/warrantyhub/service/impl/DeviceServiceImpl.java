@@ -1,26 +1,49 @@
 package com.warrantyhub.service.impl;
 
+import com.warrantyhub.dto.request.DeviceFilterRequest;
 import com.warrantyhub.dto.request.DeviceRequest;
 import com.warrantyhub.dto.response.ApiResponse;
 import com.warrantyhub.dto.response.DeviceDTO;
 import com.warrantyhub.dto.response.DeviceListResponse;
+import com.warrantyhub.dto.response.DeviceSearchHitDTO;
+import com.warrantyhub.dto.response.DeviceSearchResponse;
 import com.warrantyhub.dto.response.DocumentDTO;
 import com.warrantyhub.dto.response.MaintenanceRecordDTO;
 import com.warrantyhub.model.Device;
 import com.warrantyhub.model.Document;
 import com.warrantyhub.model.MaintenanceRecord;
+import com.warrantyhub.model.Part;
 import com.warrantyhub.model.User;
+import com.warrantyhub.exception.BadRequestException;
+import com.warrantyhub.exception.PreconditionFailedException;
 import com.warrantyhub.exception.ResourceNotFoundException;
 import com.warrantyhub.exception.UnauthorizedException;
 import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.repository.DeviceSpecifications;
 import com.warrantyhub.repository.UserRepository;
+import com.warrantyhub.service.DeviceSearchIndex;
 import com.warrantyhub.service.DeviceService;
+import com.warrantyhub.util.AppConstants;
+import com.warrantyhub.util.SerialNumberUtils;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,21 +57,46 @@ public class DeviceServiceImpl implements DeviceService {
     private final DeviceRepository deviceRepository;
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
+    private final DeviceSearchIndex deviceSearchIndex;
+    private final SerialMissCache serialMisses;
+    private final long largeAccountThreshold;
+
+    // Sort keys accepted by the device list, and those a (user_id, ...) index returns in order
+    private static final List<String> SORT_KEYS =
+            List.of("name", "manufacturer", "purchaseDate", "warrantyEndDate", "purchasePrice");
+    private static final List<String> INDEXED_SORT_KEYS = List.of("name", "purchaseDate", "warrantyEndDate");
 
     @Autowired
     public DeviceServiceImpl(
             DeviceRepository deviceRepository,
             UserRepository userRepository,
-            ModelMapper modelMapper) {
+            ModelMapper modelMapper,
+            DeviceSearchIndex deviceSearchIndex,
+            @Value("${app.devices.serial-lookup.miss-cache.max-size}") int missCacheMaxSize,
+            @Value("${app.devices.serial-lookup.miss-cache.ttl-seconds}") long missCacheTtlSeconds,
+            @Value("${app.devices.listing.large-account-threshold}") long largeAccountThreshold) {
         this.deviceRepository = deviceRepository;
         this.userRepository = userRepository;
         this.modelMapper = modelMapper;
+        this.deviceSearchIndex = deviceSearchIndex;
+        this.serialMisses = new SerialMissCache(missCacheMaxSize, Duration.ofSeconds(missCacheTtlSeconds));
+        this.largeAccountThreshold = largeAccountThreshold;
     }
 
     @Override
-    public DeviceListResponse getAllDevicesByUser(Authentication authentication) {
+    @Transactional(readOnly = true)
+    public DeviceListResponse getAllDevicesByUser(DeviceFilterRequest filter, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
-        List<Device> devices = deviceRepository.findByUser(user);
+        Sort sort = toSort(filter.getSort(), user.getId());
+
+        Specification<Device> spec = DeviceSpecifications.ownedBy(user.getId())
+                .and(DeviceSpecifications.hasWarrantyStatus(filter.getWarrantyStatus()))
+                .and(DeviceSpecifications.hasManufacturer(filter.getManufacturer()))
+                .and(DeviceSpecifications.hasWarrantyProvider(filter.getWarrantyProvider()))
+                .and(DeviceSpecifications.purchasedBetween(filter.getPurchasedFrom(), filter.getPurchasedTo()))
+                .and(DeviceSpecifications.warrantyEndsBetween(filter.getWarrantyEndsFrom(), filter.getWarrantyEndsTo()))
+                .and(DeviceSpecifications.pricedBetween(filter.getMinPrice(), filter.getMaxPrice()));
+        List<Device> devices = deviceRepository.findAll(spec, sort);
 
         List<DeviceDTO> deviceDTOs = devices.stream()
                 .map(this::convertToDTO)
@@ -60,6 +108,7 @@ public class DeviceServiceImpl implements DeviceService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public DeviceDTO getDeviceById(Long id, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
         Device device = deviceRepository.findById(id)
@@ -74,9 +123,11 @@ public class DeviceServiceImpl implements DeviceService {
     }
 
     @Override
+    @Transactional
     public DeviceDTO createDevice(DeviceRequest deviceRequest, Authentication authentication) {
         logger.info("Creating device with data: {}", deviceRequest);
         User user = getUserFromAuthentication(authentication);
+        checkSerialNumberAvailable(user.getId(), deviceRequest, null);
 
         Device device = new Device();
         device.setName(deviceRequest.getName());
@@ -102,11 +153,14 @@ public class DeviceServiceImpl implements DeviceService {
         }
 
         Device savedDevice = deviceRepository.save(device);
+        forgetSerialMiss(user.getId(), savedDevice.getSerialNumberNormalized());
+        afterCommit(() -> deviceSearchIndex.index(savedDevice));
         return convertToDTO(savedDevice);
     }
 
     @Override
-    public DeviceDTO updateDevice(Long id, DeviceRequest deviceRequest, Authentication authentication) {
+    @Transactional
+    public DeviceDTO updateDevice(Long id, DeviceRequest deviceRequest, Set<Long> expectedVersions, Authentication authentication) {
         logger.info("Updating device id {} with data: {}", id, deviceRequest);
         User user = getUserFromAuthentication(authentication);
 
@@ -117,12 +171,31 @@ public class DeviceServiceImpl implements DeviceService {
         if (!device.getUser().getId().equals(user.getId())) {
             throw new UnauthorizedException("You don't have permission to update this device");
         }
+        // A concurrent update that commits after this check is caught by the version check on flush
+        if (expectedVersions != null && !expectedVersions.contains(device.getVersion())) {
+            throw new PreconditionFailedException("Device is no longer at the version given in If-Match"
+                    + "; fetch it again and reapply the changes");
+        }
+        // Duplicates registered before serials were unique were left without a lookup key; they stay
+        // editable, and keyless, as long as their serial and manufacturer do not change
+        boolean serialKeyUnchanged = Objects.equals(SerialNumberUtils.normalize(device.getSerialNumber()),
+                SerialNumberUtils.normalize(deviceRequest.getSerialNumber()))
+                && Objects.equals(device.getManufacturer(), deviceRequest.getManufacturer());
+        String serialNumberNormalized = device.getSerialNumberNormalized();
+
+        // Checked before the entity changes, so the query's auto-flush cannot hit the unique index first
+        if (!serialKeyUnchanged) {
+            checkSerialNumberAvailable(user.getId(), deviceRequest, id);
+        }
 
         // Update device fields
         device.setName(deviceRequest.getName());
         device.setManufacturer(deviceRequest.getManufacturer());
         device.setModel(deviceRequest.getModel());
         device.setSerialNumber(deviceRequest.getSerialNumber());
+        if (serialKeyUnchanged) {
+            device.setSerialNumberNormalized(serialNumberNormalized);
+        }
         device.setPurchaseDate(deviceRequest.getPurchaseDate());
         device.setWarrantyEndDate(deviceRequest.getWarrantyEndDate());
         device.setWarrantyProvider(deviceRequest.getWarrantyProvider());
@@ -140,11 +213,15 @@ public class DeviceServiceImpl implements DeviceService {
             device.setWarrantyStatus("unknown");
         }
 
-        Device updatedDevice = deviceRepository.save(device);
+        // Flushed now so the response carries the incremented version
+        Device updatedDevice = deviceRepository.saveAndFlush(device);
+        forgetSerialMiss(user.getId(), updatedDevice.getSerialNumberNormalized());
+        afterCommit(() -> deviceSearchIndex.index(updatedDevice));
         return convertToDTO(updatedDevice);
     }
 
     @Override
+    @Transactional
     public ApiResponse deleteDevice(Long id, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
 
@@ -157,9 +234,133 @@ public class DeviceServiceImpl implements DeviceService {
         }
 
         deviceRepository.delete(device);
+        afterCommit(() -> deviceSearchIndex.remove(user.getId(), id));
         return new ApiResponse(true, "Device deleted successfully");
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public DeviceSearchResponse searchDevices(String query, int page, int size, Authentication authentication) {
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+        if (size < 1 || size > AppConstants.MAX_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + AppConstants.MAX_PAGE_SIZE);
+        }
+        User user = getUserFromAuthentication(authentication);
+
+        DeviceSearchIndex.SearchResult result = deviceSearchIndex.search(
+                user, query, (int) Math.min((long) page * size, Integer.MAX_VALUE), size);
+
+        List<DeviceSearchHitDTO> hits = result.getHits().stream()
+                .map(this::convertToSearchHitDTO)
+                .collect(Collectors.toList());
+        return new DeviceSearchResponse(query, page, size, result.getTotalHits(), hits);
+    }
+
+    /**
+     * Reads from the primary: a miss read from a lagging replica could be cached again right after
+     * a create or update dropped it, and would then hide the new device for the cache's lifetime.
+     */
+    @Override
+    @Transactional
+    public DeviceListResponse lookupBySerialNumber(String serialNumber, String manufacturer, Authentication authentication) {
+        String normalized = SerialNumberUtils.normalize(serialNumber);
+        if (normalized == null) {
+            throw new BadRequestException("Serial number must contain letters or digits");
+        }
+        User user = getUserFromAuthentication(authentication);
+
+        if (serialMisses.contains(user.getId(), normalized)) {
+            throw new ResourceNotFoundException("No device found with serial number: " + serialNumber);
+        }
+        List<Device> devices = deviceRepository.findByUserIdAndSerialNumberNormalized(user.getId(), normalized);
+        if (devices.isEmpty()) {
+            serialMisses.put(user.getId(), normalized);
+            throw new ResourceNotFoundException("No device found with serial number: " + serialNumber);
+        }
+
+        List<DeviceDTO> deviceDTOs = devices.stream()
+                .filter(device -> manufacturer == null || manufacturer.isBlank()
+                        || manufacturer.trim().equalsIgnoreCase(device.getManufacturer()))
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        if (deviceDTOs.isEmpty()) {
+            throw new ResourceNotFoundException("No device from " + manufacturer + " found with serial number: " + serialNumber);
+        }
+        return new DeviceListResponse(deviceDTOs);
+    }
+
+    /**
+     * Parses "key" or "key,asc|desc", with id as a tiebreaker so equal keys keep a stable order.
+     * Sorting a large account by a key no index covers would filesort all of its devices on
+     * every request, so only the indexed keys are allowed there.
+     */
+    private Sort toSort(String sortParam, Long userId) {
+        if (sortParam == null || sortParam.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] parts = sortParam.split(",");
+        String key = parts[0].trim();
+        if (!SORT_KEYS.contains(key)) {
+            throw new BadRequestException("Cannot sort by '" + key + "'; use one of " + String.join(", ", SORT_KEYS));
+        }
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (parts.length > 1) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new BadRequestException("Sort direction must be asc or desc"));
+        }
+        if (!INDEXED_SORT_KEYS.contains(key) && deviceRepository.countByUserId(userId) > largeAccountThreshold) {
+            throw new BadRequestException("Accounts with more than " + largeAccountThreshold
+                    + " devices can only sort by " + String.join(", ", INDEXED_SORT_KEYS));
+        }
+        return Sort.by(direction, key).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * A serial can be registered once per manufacturer; the unique index backs this up under concurrency.
+     */
+    private void checkSerialNumberAvailable(Long userId, DeviceRequest deviceRequest, Long deviceId) {
+        String normalized = SerialNumberUtils.normalize(deviceRequest.getSerialNumber());
+        if (normalized == null) {
+            return;
+        }
+        deviceRepository.findFirstByUserIdAndSerialNumberNormalizedAndManufacturer(
+                        userId, normalized, deviceRequest.getManufacturer())
+                .filter(existing -> !existing.getId().equals(deviceId))
+                .ifPresent(existing -> {
+                    throw new BadRequestException("Device \"" + existing.getName()
+                            + "\" already has this serial number for the same manufacturer");
+                });
+    }
+
+    /**
+     * Drops a cached miss now and again after commit, so a lookup racing the write cannot re-cache it
+     */
+    private void forgetSerialMiss(Long userId, String serialNumberNormalized) {
+        if (serialNumberNormalized == null) {
+            return;
+        }
+        serialMisses.remove(userId, serialNumberNormalized);
+        afterCommit(() -> serialMisses.remove(userId, serialNumberNormalized));
+    }
+
+    /**
+     * The search index only reflects committed devices; a rolled back write must not show up in it.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     private User getUserFromAuthentication(Authentication authentication) {
         return userRepository.findByEmail(authentication.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -178,6 +379,7 @@ public class DeviceServiceImpl implements DeviceService {
         deviceDTO.setWarrantyProvider(device.getWarrantyProvider());
         deviceDTO.setPurchasePrice(device.getPurchasePrice());
         deviceDTO.setNotes(device.getNotes());
+        deviceDTO.setVersion(device.getVersion());
 
         // Convert maintenance records
         List<MaintenanceRecordDTO> maintenanceRecordDTOs = device.getMaintenanceHistory().stream()
@@ -194,6 +396,19 @@ public class DeviceServiceImpl implements DeviceService {
         return deviceDTO;
     }
 
+    private DeviceSearchHitDTO convertToSearchHitDTO(DeviceSearchIndex.Hit hit) {
+        DeviceSearchHitDTO dto = new DeviceSearchHitDTO();
+        dto.setId(hit.getId().toString());
+        dto.setName(hit.getName());
+        dto.setManufacturer(hit.getManufacturer());
+        dto.setModel(hit.getModel());
+        dto.setSerialNumber(hit.getSerialNumber());
+        dto.setWarrantyStatus(hit.getWarrantyStatus());
+        dto.setWarrantyEndDate(hit.getWarrantyEndDate());
+        dto.setScore(hit.getScore());
+        return dto;
+    }
+
     private MaintenanceRecordDTO convertToMaintenanceDTO(MaintenanceRecord record) {
         MaintenanceRecordDTO dto = new MaintenanceRecordDTO();
         dto.setId(record.getId().toString());
@@ -202,8 +417,11 @@ public class DeviceServiceImpl implements DeviceService {
         dto.setDescription(record.getDescription());
         dto.setCost(record.getCost());
         dto.setServiceProvider(record.getServiceProvider());
-        dto.setPartsReplaced(record.getPartsReplaced());
+        dto.setPartsReplaced(record.getParts().stream()
+                .map(Part::getName)
+                .collect(Collectors.toList()));
         dto.setNextScheduledDate(record.getNextScheduledDate());
+        dto.setVersion(record.getVersion());
         return dto;
     }
 
@@ -216,4 +434,65 @@ public class DeviceServiceImpl implements DeviceService {
         dto.setUploadDate(document.getUploadDate());
         return dto;
     }
+
+    /**
+     * Bounded, time-limited record of serial lookups that found nothing, so repeated lookups of a
+     * serial that is not registered do not reach the database
+     */
+    private static final class SerialMissCache {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Duration ttl;
+        private final LinkedHashMap<String, Instant> entries;
+
+        private SerialMissCache(int maxSize, Duration ttl) {
+            this.ttl = ttl;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Instant> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private boolean contains(Long userId, String serialNumber) {
+            String key = key(userId, serialNumber);
+            lock.lock();
+            try {
+                Instant cachedUntil = entries.get(key);
+                if (cachedUntil == null) {
+                    return false;
+                }
+                if (cachedUntil.isBefore(Instant.now())) {
+                    entries.remove(key);
+                    return false;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(Long userId, String serialNumber) {
+            Instant cachedUntil = Instant.now().plus(ttl);
+            lock.lock();
+            try {
+                entries.put(key(userId, serialNumber), cachedUntil);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Long userId, String serialNumber) {
+            lock.lock();
+            try {
+                entries.remove(key(userId, serialNumber));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static String key(Long userId, String serialNumber) {
+            return userId + ":" + serialNumber;
+        }
+    }
 }
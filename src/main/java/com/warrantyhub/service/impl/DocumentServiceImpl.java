@@ -13,43 +13,62 @@ import com.warrantyhub.repository.DeviceRepository;
 import com.warrantyhub.repository.DocumentRepository;
 import com.warrantyhub.repository.UserRepository;
 import com.warrantyhub.service.DocumentService;
+import com.warrantyhub.service.FileStorageService;
+import com.warrantyhub.util.AppConstants;
+import com.warrantyhub.util.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class DocumentServiceImpl implements DocumentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DocumentServiceImpl.class);
+
     private final Path fileStorageLocation;
     private final DocumentRepository documentRepository;
     private final DeviceRepository deviceRepository;
     private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
 
     @Autowired
     public DocumentServiceImpl(
             FileStorageConfig fileStorageConfig,
             DocumentRepository documentRepository,
             DeviceRepository deviceRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            FileStorageService fileStorageService) {
         this.documentRepository = documentRepository;
         this.deviceRepository = deviceRepository;
         this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
 
         this.fileStorageLocation = Paths.get(fileStorageConfig.getUploadDir())
                 .toAbsolutePath().normalize();
@@ -62,6 +81,7 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
+    @Transactional
     public DocumentDTO uploadDocument(Long deviceId, MultipartFile file, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
 
@@ -73,8 +93,8 @@ public class DocumentServiceImpl implements DocumentService {
             throw new UnauthorizedException("You don't have permission to upload documents to this device");
         }
 
-        // Check if device already has 10 documents
-        if (device.getDocuments().size() >= 10) {
+        // Cheap pre-check against the counter column; the slot is claimed atomically after the file is written
+        if (device.getDocumentCount() >= AppConstants.MAX_DOCUMENTS_PER_DEVICE) {
             throw new FileStorageException("Maximum number of documents reached for this device");
         }
 
@@ -91,9 +111,16 @@ public class DocumentServiceImpl implements DocumentService {
         String storedFileName = UUID.randomUUID().toString() + "." + extension;
 
         try {
-            // Copy file to the target location (replacing existing file with the same name)
+            // Copy file to the target location, compressing it when the type benefits from it
             Path targetLocation = this.fileStorageLocation.resolve(storedFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            FileStorageService.StoredFile storedFile = fileStorageService.store(
+                    file.getInputStream(), targetLocation, file.getContentType(), originalFileName);
+
+            // Claim a document slot; a concurrent upload may have taken the last one
+            if (deviceRepository.incrementDocumentCount(deviceId, AppConstants.MAX_DOCUMENTS_PER_DEVICE) == 0) {
+                Files.deleteIfExists(targetLocation);
+                throw new FileStorageException("Maximum number of documents reached for this device");
+            }
 
             // Create file URL
             String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
@@ -107,6 +134,10 @@ public class DocumentServiceImpl implements DocumentService {
             document.setFilePath(targetLocation.toString());
             document.setFileUrl(fileUrl);
             document.setFileType(file.getContentType());
+            document.setStoredFileName(storedFileName);
+            document.setCompressed(storedFile.isCompressed());
+            document.setFileSize(storedFile.getOriginalSize());
+            document.setStoredSize(storedFile.getStoredSize());
             document.setUploadDate(LocalDate.now());
             document.setDevice(device);
 
@@ -127,7 +158,8 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
-    public Resource downloadDocument(Long documentId, Authentication authentication) {
+    @Transactional(readOnly = true)
+    public DocumentDownload downloadDocument(Long documentId, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
 
         Document document = documentRepository.findById(documentId)
@@ -138,12 +170,39 @@ public class DocumentServiceImpl implements DocumentService {
             throw new UnauthorizedException("You don't have permission to download this document");
         }
 
+        Path filePath = Paths.get(document.getFilePath());
+        String contentType = document.getFileType() != null ? document.getFileType() : "application/octet-stream";
+
+        if (document.isCompressed()) {
+            if (!Files.exists(filePath)) {
+                throw new ResourceNotFoundException("File not found: " + document.getName());
+            }
+            try {
+                // Inflate on the fly; the original size is known, so the stream is never read to measure it
+                InputStream content = fileStorageService.openForRead(filePath, true);
+                long fileSize = document.getFileSize();
+                String fileName = document.getName();
+                return new DocumentDownload(new InputStreamResource(content) {
+                    @Override
+                    public String getFilename() {
+                        return fileName;
+                    }
+
+                    @Override
+                    public long contentLength() {
+                        return fileSize;
+                    }
+                }, contentType);
+            } catch (IOException ex) {
+                throw new FileStorageException("Could not read file: " + document.getName(), ex);
+            }
+        }
+
         try {
-            Path filePath = Paths.get(document.getFilePath());
             Resource resource = new UrlResource(filePath.toUri());
 
             if (resource.exists()) {
-                return resource;
+                return new DocumentDownload(resource, contentType);
             } else {
                 throw new ResourceNotFoundException("File not found: " + document.getName());
             }
@@ -153,6 +212,7 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
+    @Transactional
     public ApiResponse deleteDocument(Long deviceId, Long documentId, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
 
@@ -172,20 +232,121 @@ public class DocumentServiceImpl implements DocumentService {
             throw new UnauthorizedException("Document does not belong to the specified device");
         }
 
-        try {
-            // Delete file from storage
-            Path filePath = Paths.get(document.getFilePath());
-            Files.deleteIfExists(filePath);
+        documentRepository.delete(document);
+        deviceRepository.decrementDocumentCount(deviceId);
+
+        // The file goes only once the row is gone for good; a file left behind is quarantined by reconciliation
+        Path filePath = Paths.get(document.getFilePath());
+        afterCommit(() -> deleteStoredFile(filePath));
 
-            // Delete document from database
-            documentRepository.delete(document);
+        return new ApiResponse(true, "Document deleted successfully");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody exportDeviceDocuments(Long deviceId, Authentication authentication) {
+        User user = getUserFromAuthentication(authentication);
+
+        Device device = deviceRepository.findById(deviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Device not found with id: " + deviceId));
+
+        // Check if device belongs to user
+        if (!device.getUser().getId().equals(user.getId())) {
+            throw new UnauthorizedException("You don't have permission to download documents of this device");
+        }
 
-            return new ApiResponse(true, "Document deleted successfully");
+        List<ArchiveEntry> entries = documentRepository.findByDeviceIdOrderByIdAsc(deviceId).stream()
+                .map(document -> new ArchiveEntry(
+                        document.getId() + "_" + FileUtils.toSafeEntryName(document.getName()),
+                        document.getFilePath(),
+                        document.getFileType(),
+                        document.isCompressed()))
+                .collect(Collectors.toList());
+
+        return outputStream -> writeArchive(entries, outputStream);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody exportAllDocuments(Authentication authentication) {
+        User user = getUserFromAuthentication(authentication);
+
+        // Group entries by device folder; the device id is read from the proxy without initializing it
+        List<ArchiveEntry> entries = documentRepository.findByDeviceUserIdOrderByDeviceIdAscIdAsc(user.getId()).stream()
+                .map(document -> new ArchiveEntry(
+                        "device-" + document.getDevice().getId() + "/"
+                                + document.getId() + "_" + FileUtils.toSafeEntryName(document.getName()),
+                        document.getFilePath(),
+                        document.getFileType(),
+                        document.isCompressed()))
+                .collect(Collectors.toList());
+
+        return outputStream -> writeArchive(entries, outputStream);
+    }
+
+    /**
+     * Writes each file into the response as it is read. Entries are resolved up front on the
+     * request thread, so the streaming callback never touches the persistence context.
+     */
+    private void writeArchive(List<ArchiveEntry> entries, OutputStream outputStream) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        for (ArchiveEntry entry : entries) {
+            Path filePath = Paths.get(entry.filePath);
+            if (!Files.isReadable(filePath)) {
+                logger.warn("Skipping missing file for archive entry: {}", entry.entryName);
+                continue;
+            }
+            if (entry.compressed) {
+                try (InputStream content = fileStorageService.openForRead(filePath, true)) {
+                    FileUtils.writeZipEntry(zip, entry.entryName, content);
+                }
+                continue;
+            }
+            boolean store = FileUtils.isAlreadyCompressed(entry.fileType, entry.entryName);
+            FileUtils.writeZipEntry(zip, entry.entryName, filePath, store);
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private static final class ArchiveEntry {
+        private final String entryName;
+        private final String filePath;
+        private final String fileType;
+        private final boolean compressed;
+
+        private ArchiveEntry(String entryName, String filePath, String fileType, boolean compressed) {
+            this.entryName = entryName;
+            this.filePath = filePath;
+            this.fileType = fileType;
+            this.compressed = compressed;
+        }
+    }
+
+    private void deleteStoredFile(Path filePath) {
+        try {
+            Files.deleteIfExists(filePath);
         } catch (IOException ex) {
-            throw new FileStorageException("Could not delete file. Please try again!", ex);
+            logger.warn("Could not delete file {} of a deleted document: {}", filePath, ex.getMessage());
         }
     }
 
+    /**
+     * A rolled back delete keeps its row, so the file must stay until the transaction commits.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     private User getUserFromAuthentication(Authentication authentication) {
         return userRepository.findByEmail(authentication.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -0,0 +1,395 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.config.FileStorageConfig;
+import com.warrantyhub.dto.request.DocumentUploadInitRequest;
+import com.warrantyhub.dto.response.ApiResponse;
+import com.warrantyhub.dto.response.DocumentDTO;
+import com.warrantyhub.dto.response.DocumentUploadDTO;
+import com.warrantyhub.exception.BadRequestException;
+import com.warrantyhub.exception.FileStorageException;
+import com.warrantyhub.exception.ResourceNotFoundException;
+import com.warrantyhub.exception.UnauthorizedException;
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.Document;
+import com.warrantyhub.model.DocumentUpload;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.repository.DocumentRepository;
+import com.warrantyhub.repository.DocumentUploadRepository;
+import com.warrantyhub.repository.UserRepository;
+import com.warrantyhub.service.DocumentUploadService;
+import com.warrantyhub.service.FileStorageService;
+import com.warrantyhub.util.AppConstants;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class DocumentUploadServiceImpl implements DocumentUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentUploadServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PARTIAL_DIRECTORY = ".partial";
+
+    private final Path fileStorageLocation;
+    private final Path partialStorageLocation;
+    private final DocumentUploadRepository documentUploadRepository;
+    private final DocumentRepository documentRepository;
+    private final DeviceRepository deviceRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+
+    @Value("${app.upload.chunked.max-file-size}")
+    private long maxFileSize;
+
+    @Value("${app.upload.chunked.expiry-hours}")
+    private long expiryHours;
+
+    @Autowired
+    public DocumentUploadServiceImpl(
+            FileStorageConfig fileStorageConfig,
+            DocumentUploadRepository documentUploadRepository,
+            DocumentRepository documentRepository,
+            DeviceRepository deviceRepository,
+            UserRepository userRepository,
+            FileStorageService fileStorageService) {
+        this.documentUploadRepository = documentUploadRepository;
+        this.documentRepository = documentRepository;
+        this.deviceRepository = deviceRepository;
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+
+        this.fileStorageLocation = Paths.get(fileStorageConfig.getUploadDir())
+                .toAbsolutePath().normalize();
+        // Partial files live under the upload directory so finalizing is a rename on the same file system
+        this.partialStorageLocation = this.fileStorageLocation.resolve(PARTIAL_DIRECTORY);
+
+        try {
+            Files.createDirectories(this.partialStorageLocation);
+        } catch (Exception ex) {
+            throw new FileStorageException("Could not create the directory where partial uploads will be stored.", ex);
+        }
+    }
+
+    @Override
+    @Transactional
+    public DocumentUploadDTO initiateUpload(Long deviceId, DocumentUploadInitRequest request, Authentication authentication) {
+        Device device = getOwnedDevice(deviceId, authentication);
+
+        // Cheap pre-check against the counter column; the slot is claimed when the upload completes
+        if (device.getDocumentCount() >= AppConstants.MAX_DOCUMENTS_PER_DEVICE) {
+            throw new FileStorageException("Maximum number of documents reached for this device");
+        }
+
+        if (request.getTotalSize() > maxFileSize) {
+            throw new BadRequestException("File exceeds the maximum allowed size of " + maxFileSize + " bytes");
+        }
+
+        // Normalize file name
+        String originalFileName = StringUtils.cleanPath(request.getFileName());
+
+        // Check if the file's name contains invalid characters
+        if (originalFileName.contains("..")) {
+            throw new FileStorageException("Sorry! Filename contains invalid path sequence " + originalFileName);
+        }
+
+        String extension = FilenameUtils.getExtension(originalFileName);
+        String storedFileName = UUID.randomUUID().toString() + "." + extension;
+
+        Instant now = Instant.now();
+        DocumentUpload upload = new DocumentUpload();
+        upload.setUploadId(UUID.randomUUID().toString());
+        upload.setFileName(originalFileName);
+        upload.setFileType(request.getFileType());
+        upload.setTotalSize(request.getTotalSize());
+        upload.setReceivedBytes(0);
+        upload.setChecksum(request.getChecksum().toLowerCase());
+        upload.setStoredFileName(storedFileName);
+        upload.setCreatedAt(now);
+        upload.setUpdatedAt(now);
+        upload.setDevice(device);
+
+        // The row is written first, so a failed insert leaves no partial file behind. If creating the
+        // file fails the row is rolled back, and if the commit fails the file is removed
+        DocumentUpload savedUpload = documentUploadRepository.saveAndFlush(upload);
+        Path partialFile = partialStorageLocation.resolve(storedFileName);
+        try {
+            Files.createFile(partialFile);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not start upload for " + originalFileName + ". Please try again!", ex);
+        }
+        deleteOnRollback(partialFile);
+
+        return toUploadDTO(savedUpload);
+    }
+
+    @Override
+    public DocumentUploadDTO uploadChunk(Long deviceId, String uploadId, long offset, InputStream content,
+                                         Authentication authentication) {
+        DocumentUpload upload = getOwnedUpload(deviceId, uploadId, authentication);
+
+        // Chunks may be retried or overlap, but must not leave a gap behind the received data
+        if (offset < 0 || offset > upload.getReceivedBytes()) {
+            throw new BadRequestException("Chunk offset " + offset + " does not match received bytes "
+                    + upload.getReceivedBytes());
+        }
+
+        long position = offset;
+        Path partialFile = partialStorageLocation.resolve(upload.getStoredFileName());
+        try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                if (position + read > upload.getTotalSize()) {
+                    throw new BadRequestException("Chunk exceeds the declared file size of " + upload.getTotalSize() + " bytes");
+                }
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store chunk for upload " + uploadId + ". Please retry from the last offset", ex);
+        }
+
+        Instant now = Instant.now();
+        if (documentUploadRepository.advanceReceivedBytes(uploadId, position, now) == 0) {
+            documentUploadRepository.touch(uploadId, now);
+        }
+
+        upload.setReceivedBytes(Math.max(upload.getReceivedBytes(), position));
+        return toUploadDTO(upload);
+    }
+
+    @Override
+    public DocumentUploadDTO getUploadStatus(Long deviceId, String uploadId, Authentication authentication) {
+        return toUploadDTO(getOwnedUpload(deviceId, uploadId, authentication));
+    }
+
+    @Override
+    @Transactional(noRollbackFor = BadRequestException.class)
+    public DocumentDTO completeUpload(Long deviceId, String uploadId, Authentication authentication) {
+        DocumentUpload upload = getOwnedUpload(deviceId, uploadId, authentication);
+        Device device = upload.getDevice();
+
+        if (upload.getReceivedBytes() != upload.getTotalSize()) {
+            throw new BadRequestException("Upload is incomplete: received " + upload.getReceivedBytes()
+                    + " of " + upload.getTotalSize() + " bytes");
+        }
+
+        Path partialFile = partialStorageLocation.resolve(upload.getStoredFileName());
+        Path targetLocation = fileStorageLocation.resolve(upload.getStoredFileName());
+        FileStorageService.StoredFile storedFile;
+
+        try {
+            if (Files.size(partialFile) != upload.getTotalSize()) {
+                throw new BadRequestException("Stored size does not match the declared file size");
+            }
+
+            if (!sha256(partialFile).equals(upload.getChecksum())) {
+                // The data is corrupt, so resuming cannot help; the client has to start over
+                Files.deleteIfExists(partialFile);
+                documentUploadRepository.delete(upload);
+                throw new BadRequestException("Checksum mismatch for " + upload.getFileName() + ". Please upload the file again");
+            }
+
+            if (device.getDocumentCount() >= AppConstants.MAX_DOCUMENTS_PER_DEVICE) {
+                throw new FileStorageException("Maximum number of documents reached for this device");
+            }
+
+            // Compress before claiming the slot, so the device row is not locked while the file is written
+            storedFile = fileStorageService.storeFile(partialFile, targetLocation, upload.getFileType(), upload.getFileName());
+
+            // Claim a document slot; a concurrent upload may have taken the last one, in which case the
+            // partial file is restored so the client can retry after freeing one
+            if (deviceRepository.incrementDocumentCount(device.getId(), AppConstants.MAX_DOCUMENTS_PER_DEVICE) == 0) {
+                restorePartialFile(targetLocation, partialFile, storedFile.isCompressed());
+                throw new FileStorageException("Maximum number of documents reached for this device");
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not store file " + upload.getFileName() + ". Please try again!", ex);
+        }
+
+        // Create file URL
+        String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/files/")
+                .path(upload.getStoredFileName())
+                .toUriString();
+
+        // Save document metadata to database
+        Document document = new Document();
+        document.setName(upload.getFileName());
+        document.setFilePath(targetLocation.toString());
+        document.setFileUrl(fileUrl);
+        document.setFileType(upload.getFileType());
+        document.setStoredFileName(upload.getStoredFileName());
+        document.setCompressed(storedFile.isCompressed());
+        document.setFileSize(storedFile.getOriginalSize());
+        document.setStoredSize(storedFile.getStoredSize());
+        document.setUploadDate(LocalDate.now());
+        document.setDevice(device);
+
+        Document savedDocument = documentRepository.save(document);
+        documentUploadRepository.delete(upload);
+
+        DocumentDTO documentDTO = new DocumentDTO();
+        documentDTO.setId(savedDocument.getId().toString());
+        documentDTO.setName(savedDocument.getName());
+        documentDTO.setFileUrl(savedDocument.getFileUrl());
+        documentDTO.setFileType(savedDocument.getFileType());
+        documentDTO.setUploadDate(savedDocument.getUploadDate());
+        return documentDTO;
+    }
+
+    @Override
+    @Transactional
+    public ApiResponse abortUpload(Long deviceId, String uploadId, Authentication authentication) {
+        DocumentUpload upload = getOwnedUpload(deviceId, uploadId, authentication);
+
+        try {
+            Files.deleteIfExists(partialStorageLocation.resolve(upload.getStoredFileName()));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not delete partial upload. Please try again!", ex);
+        }
+        documentUploadRepository.delete(upload);
+
+        return new ApiResponse(true, "Upload aborted successfully");
+    }
+
+    @Override
+    public int purgeExpiredUploads() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(expiryHours));
+        int purged = 0;
+
+        List<DocumentUpload> expired;
+        do {
+            expired = documentUploadRepository.findTop100ByUpdatedAtBefore(cutoff);
+            for (DocumentUpload upload : expired) {
+                try {
+                    Files.deleteIfExists(partialStorageLocation.resolve(upload.getStoredFileName()));
+                } catch (IOException ex) {
+                    logger.warn("Could not delete partial file {}: {}", upload.getStoredFileName(), ex.getMessage());
+                }
+            }
+            documentUploadRepository.deleteAllInBatch(expired);
+            purged += expired.size();
+        } while (!expired.isEmpty());
+
+        return purged;
+    }
+
+    private void deleteOnRollback(Path file) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException ex) {
+                        logger.warn("Could not delete partial file {}: {}", file.getFileName(), ex.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    private void restorePartialFile(Path storedFile, Path partialFile, boolean compressed) throws IOException {
+        if (compressed) {
+            try (InputStream in = fileStorageService.openForRead(storedFile, true)) {
+                Files.copy(in, partialFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.delete(storedFile);
+        } else {
+            Files.move(storedFile, partialFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private Device getOwnedDevice(Long deviceId, Authentication authentication) {
+        User user = getUserFromAuthentication(authentication);
+
+        Device device = deviceRepository.findById(deviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Device not found with id: " + deviceId));
+
+        // Check if device belongs to user
+        if (!device.getUser().getId().equals(user.getId())) {
+            throw new UnauthorizedException("You don't have permission to upload documents to this device");
+        }
+        return device;
+    }
+
+    private DocumentUpload getOwnedUpload(Long deviceId, String uploadId, Authentication authentication) {
+        User user = getUserFromAuthentication(authentication);
+
+        DocumentUpload upload = documentUploadRepository.findByUploadId(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found with id: " + uploadId));
+
+        // Check if upload belongs to the user's device
+        if (!upload.getDevice().getId().equals(deviceId)
+                || !upload.getDevice().getUser().getId().equals(user.getId())) {
+            throw new UnauthorizedException("You don't have permission to access this upload");
+        }
+        return upload;
+    }
+
+    private String sha256(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private DocumentUploadDTO toUploadDTO(DocumentUpload upload) {
+        DocumentUploadDTO dto = new DocumentUploadDTO();
+        dto.setUploadId(upload.getUploadId());
+        dto.setFileName(upload.getFileName());
+        dto.setTotalSize(upload.getTotalSize());
+        dto.setReceivedBytes(upload.getReceivedBytes());
+        dto.setExpiresAt(upload.getUpdatedAt().plus(Duration.ofHours(expiryHours)));
+        return dto;
+    }
+
+    private User getUserFromAuthentication(Authentication authentication) {
+        return userRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+}
@@ -0,0 +1,240 @@
+package com.warrantyhub.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.warrantyhub.model.EmailOutbox;
+import com.warrantyhub.model.EmailStatus;
+import com.warrantyhub.repository.EmailOutboxRepository;
+import com.warrantyhub.service.EmailOutboxService;
+import com.warrantyhub.service.EmailTemplateRenderer;
+import com.warrantyhub.service.MailTransportService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxServiceImpl.class);
+
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final MailTransportService mailTransportService;
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    private final ObjectMapper objectMapper;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter deferredCounter;
+
+    @Value("${app.mail.from}")
+    private String fromAddress;
+
+    @Value("${app.mail.outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff-seconds}")
+    private long backoffSeconds;
+
+    @Value("${app.mail.outbox.claim-timeout-seconds}")
+    private long claimTimeoutSeconds;
+
+    @Autowired
+    public EmailOutboxServiceImpl(
+            EmailOutboxRepository emailOutboxRepository,
+            MailTransportService mailTransportService,
+            EmailTemplateRenderer emailTemplateRenderer,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailTransportService = mailTransportService;
+        this.emailTemplateRenderer = emailTemplateRenderer;
+        this.objectMapper = objectMapper;
+        this.sentCounter = Counter.builder("warrantyhub.mail.messages")
+                .tag("outcome", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("warrantyhub.mail.messages")
+                .tag("outcome", "failed").register(meterRegistry);
+        this.deferredCounter = Counter.builder("warrantyhub.mail.messages")
+                .tag("outcome", "rate_limited").register(meterRegistry);
+    }
+
+    /**
+     * Joins the caller's transaction, so the message is only sent if the business change commits
+     */
+    @Override
+    @Transactional
+    public void enqueue(String recipient, String subject, String template, Map<String, Object> variables) {
+        Instant now = Instant.now();
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(recipient);
+        email.setSubject(subject);
+        email.setTemplate(template);
+        email.setStatus(EmailStatus.PENDING);
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        try {
+            email.setVariables(objectMapper.writeValueAsString(variables));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Email variables are not serializable", ex);
+        }
+        emailOutboxRepository.save(email);
+    }
+
+    @Override
+    @Transactional
+    public List<EmailOutbox> claimDue(int limit) {
+        Instant now = Instant.now();
+        List<EmailOutbox> due = emailOutboxRepository.findDueForUpdate(EmailStatus.PENDING, now, PageRequest.of(0, limit));
+        for (EmailOutbox email : due) {
+            email.setStatus(EmailStatus.SENDING);
+            email.setClaimedAt(now);
+        }
+        return due;
+    }
+
+    @Override
+    public void deliver(EmailOutbox email) {
+        deliverBatch(List.of(email));
+    }
+
+    /**
+     * Sends the batch over a single pooled SMTP connection. Messages whose recipient domain is
+     * over its rate limit are put back without counting an attempt; the rest are rendered
+     * together per template.
+     */
+    @Override
+    public void deliverBatch(List<EmailOutbox> emails) {
+        Map<String, List<EmailOutbox>> byTemplate = new LinkedHashMap<>();
+        for (EmailOutbox email : emails) {
+            Duration wait = mailTransportService.reserveSendSlot(email.getRecipient());
+            if (!wait.isZero()) {
+                email.setStatus(EmailStatus.PENDING);
+                email.setNextAttemptAt(Instant.now().plus(wait));
+                deferredCounter.increment();
+                continue;
+            }
+            byTemplate.computeIfAbsent(email.getTemplate(), template -> new ArrayList<>()).add(email);
+        }
+
+        Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
+        byTemplate.forEach((template, group) -> renderGroup(template, group, messages));
+
+        Map<MimeMessage, Exception> failures = mailTransportService.sendBatch(new ArrayList<>(messages.keySet()));
+        messages.forEach((message, email) -> {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                email.setStatus(EmailStatus.SENT);
+                email.setSentAt(Instant.now());
+                email.setLastError(null);
+                sentCounter.increment();
+                logger.debug("Sent email {} using template {}", email.getId(), email.getTemplate());
+            } else {
+                recordFailure(email, failure);
+            }
+        });
+        emailOutboxRepository.saveAll(emails);
+    }
+
+    @Override
+    public long countPending() {
+        return emailOutboxRepository.countByStatus(EmailStatus.PENDING);
+    }
+
+    @Override
+    public int releaseStaleClaims() {
+        return emailOutboxRepository.releaseStaleClaims(Instant.now().minus(Duration.ofSeconds(claimTimeoutSeconds)));
+    }
+
+    /**
+     * Renders one template for a group of messages in a single batch. If the batch fails, each
+     * message is rendered on its own so only the broken ones count an attempt.
+     */
+    private void renderGroup(String template, List<EmailOutbox> group, Map<MimeMessage, EmailOutbox> messages) {
+        List<EmailOutbox> renderable = new ArrayList<>(group.size());
+        List<Map<String, Object>> variablesPerRecipient = new ArrayList<>(group.size());
+        for (EmailOutbox email : group) {
+            try {
+                variablesPerRecipient.add(readVariables(email));
+                renderable.add(email);
+            } catch (Exception ex) {
+                recordFailure(email, ex);
+            }
+        }
+
+        List<String> bodies;
+        try {
+            bodies = emailTemplateRenderer.renderBatch(template, variablesPerRecipient);
+        } catch (Exception ex) {
+            bodies = null;
+        }
+
+        for (int i = 0; i < renderable.size(); i++) {
+            EmailOutbox email = renderable.get(i);
+            try {
+                String body = bodies != null
+                        ? bodies.get(i)
+                        : emailTemplateRenderer.render(template, variablesPerRecipient.get(i));
+                messages.put(buildMessage(email, body), email);
+            } catch (Exception ex) {
+                recordFailure(email, ex);
+            }
+        }
+    }
+
+    private Map<String, Object> readVariables(EmailOutbox email) throws JsonProcessingException {
+        return email.getVariables() != null
+                ? objectMapper.readValue(email.getVariables(), VARIABLES_TYPE)
+                : Map.of();
+    }
+
+    private MimeMessage buildMessage(EmailOutbox email, String body) throws Exception {
+        MimeMessage message = mailTransportService.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(fromAddress);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(body, true);
+        return message;
+    }
+
+    private void recordFailure(EmailOutbox email, Exception ex) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncate(ex.getMessage()));
+        if (attempts >= maxAttempts) {
+            email.setStatus(EmailStatus.FAILED);
+            failedCounter.increment();
+            logger.error("Giving up on email {} after {} attempts: {}", email.getId(), attempts, ex.getMessage());
+        } else {
+            // Exponential backoff: base, 2x base, 4x base, ...
+            long delay = backoffSeconds << Math.min(attempts - 1, 16);
+            email.setStatus(EmailStatus.PENDING);
+            email.setNextAttemptAt(Instant.now().plus(Duration.ofSeconds(delay)));
+            logger.warn("Email {} failed (attempt {}), retrying in {}s: {}", email.getId(), attempts, delay, ex.getMessage());
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
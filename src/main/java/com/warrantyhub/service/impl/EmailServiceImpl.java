@@ -3,24 +3,50 @@ package com.warrantyhub.service.impl;
 import com.warrantyhub.model.Device;
 import com.warrantyhub.model.MaintenanceRecord;
 import com.warrantyhub.model.User;
+import com.warrantyhub.service.EmailOutboxService;
 import com.warrantyhub.service.EmailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class EmailServiceImpl implements EmailService {
 
+    private final EmailOutboxService emailOutboxService;
+
+    @Value("${app.oauth2.defaultFrontendUrl}")
+    private String frontendUrl;
+
+    @Autowired
+    public EmailServiceImpl(EmailOutboxService emailOutboxService) {
+        this.emailOutboxService = emailOutboxService;
+    }
+
     @Override
     public void sendWelcomeEmail(User user) {
-        // Stub implementation for development
-        System.out.println("Sending welcome email to: " + user.getEmail());
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", user.getName());
+        variables.put("frontendUrl", frontendUrl);
+
+        emailOutboxService.enqueue(user.getEmail(), "Welcome to WarrantyHub", "email/welcome", variables);
     }
 
     @Override
     public void sendPasswordResetEmail(User user, String resetToken) {
-        // Stub implementation for development
-        System.out.println("Sending password reset email to: " + user.getEmail() + " with token: " + resetToken);
+        String resetUrl = UriComponentsBuilder.fromUriString(frontendUrl + "/reset-password")
+                .queryParam("token", resetToken)
+                .build().toUriString();
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", user.getName());
+        variables.put("resetUrl", resetUrl);
+
+        emailOutboxService.enqueue(user.getEmail(), "Reset your WarrantyHub password", "email/reset-password", variables);
     }
 
     @Override
@@ -41,4 +67,3 @@ public class EmailServiceImpl implements EmailService {
         System.out.println("Sending monthly summary to: " + user.getEmail() + " with " + expiringDevices.size() + " expiring devices");
     }
 }
-
@@ -0,0 +1,127 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.service.EmailTemplateRenderer;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.io.output.StringBuilderWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Renders email templates with a dedicated engine: templates are parsed once at startup and
+ * kept in a cache without TTL, SpEL expressions are compiled, and output goes into pooled
+ * buffers instead of a new StringWriter per message.
+ */
+@Service
+public class EmailTemplateRendererImpl implements EmailTemplateRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateRendererImpl.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    // Buffers that grew beyond this are dropped instead of pooled, so one huge summary does not pin memory
+    private static final int MAX_POOLED_BUFFER_SIZE = 256 * 1024;
+
+    private final SpringTemplateEngine templateEngine;
+    private final BlockingQueue<StringBuilderWriter> bufferPool;
+    private final String[] preloadTemplates;
+
+    public EmailTemplateRendererImpl(
+            @Value("${app.mail.templates.preload}") String[] preloadTemplates,
+            @Value("${app.mail.templates.buffer-pool-size}") int bufferPoolSize) {
+        this.preloadTemplates = preloadTemplates;
+        this.bufferPool = new ArrayBlockingQueue<>(bufferPoolSize);
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);
+
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(64);
+        cacheManager.setExpressionCacheMaxSize(1000);
+
+        this.templateEngine = new SpringTemplateEngine();
+        this.templateEngine.setTemplateResolver(resolver);
+        this.templateEngine.setCacheManager(cacheManager);
+        this.templateEngine.setEnableSpringELCompiler(true);
+    }
+
+    /**
+     * Parse every known template once so the first real email does not pay for it
+     */
+    @PostConstruct
+    public void preload() {
+        for (String template : preloadTemplates) {
+            try {
+                render(template.trim(), Map.of());
+            } catch (Exception ex) {
+                logger.warn("Could not preload email template {}: {}", template, ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String render(String template, Map<String, Object> variables) {
+        StringBuilderWriter buffer = acquireBuffer();
+        try {
+            Context context = new Context();
+            context.setVariables(variables);
+            templateEngine.process(template, context, buffer);
+            return buffer.toString();
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Renders the same template for many recipients, reusing one context and one buffer
+     */
+    @Override
+    public List<String> renderBatch(String template, List<Map<String, Object>> variablesPerRecipient) {
+        List<String> rendered = new ArrayList<>(variablesPerRecipient.size());
+        StringBuilderWriter buffer = acquireBuffer();
+        Context context = new Context();
+        try {
+            for (Map<String, Object> variables : variablesPerRecipient) {
+                context.clearVariables();
+                context.setVariables(variables);
+                buffer.getBuilder().setLength(0);
+                templateEngine.process(template, context, buffer);
+                rendered.add(buffer.toString());
+            }
+            return rendered;
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private StringBuilderWriter acquireBuffer() {
+        StringBuilderWriter buffer = bufferPool.poll();
+        return buffer != null ? buffer : new StringBuilderWriter(INITIAL_BUFFER_SIZE);
+    }
+
+    private void releaseBuffer(StringBuilderWriter buffer) {
+        StringBuilder builder = buffer.getBuilder();
+        if (builder.capacity() > MAX_POOLED_BUFFER_SIZE) {
+            return;
+        }
+        builder.setLength(0);
+        bufferPool.offer(buffer);
+    }
+}
@@ -0,0 +1,163 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.service.FileStorageService;
+import com.warrantyhub.util.FileUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores document files, transparently gzip-compressing text-heavy types at the fastest
+ * deflate level. Already-compressed formats are always written as-is.
+ */
+@Service
+public class FileStorageServiceImpl implements FileStorageService {
+
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Set<String> compressibleTypes;
+    private final Counter compressedFiles;
+    private final Counter originalBytes;
+    private final Counter storedBytes;
+    private final Counter savedBytes;
+
+    @Value("${app.storage.compression.enabled}")
+    private boolean compressionEnabled;
+
+    // Largest compressed-to-original ratio of the trial block for which compression is kept
+    @Value("${app.storage.compression.max-ratio}")
+    private double maxRatio;
+
+    @Autowired
+    public FileStorageServiceImpl(
+            @Value("${app.storage.compression.types}") String[] compressibleTypes,
+            MeterRegistry meterRegistry) {
+        this.compressibleTypes = Arrays.stream(compressibleTypes)
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+
+        this.compressedFiles = Counter.builder("warrantyhub.documents.storage.compressed.files")
+                .description("Documents stored compressed")
+                .register(meterRegistry);
+        this.originalBytes = Counter.builder("warrantyhub.documents.storage.compressed.original.bytes")
+                .description("Original size of documents stored compressed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.storedBytes = Counter.builder("warrantyhub.documents.storage.compressed.stored.bytes")
+                .description("On-disk size of documents stored compressed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.savedBytes = Counter.builder("warrantyhub.documents.storage.saved.bytes")
+                .description("Disk space saved by compressing documents")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public StoredFile store(InputStream content, Path target, String fileType, String fileName) throws IOException {
+        byte[] sample = content.readNBytes(SAMPLE_SIZE);
+        boolean compress = isEligible(fileType, fileName) && compressesWell(sample);
+        return write(new SequenceInputStream(new ByteArrayInputStream(sample), content), target, compress);
+    }
+
+    private StoredFile write(InputStream content, Path target, boolean compress) throws IOException {
+        long originalSize;
+        try (OutputStream fileOut = Files.newOutputStream(target);
+             OutputStream out = compress ? new FastGzipOutputStream(fileOut) : fileOut) {
+            originalSize = content.transferTo(out);
+        }
+
+        long storedSize = Files.size(target);
+        if (compress) {
+            compressedFiles.increment();
+            originalBytes.increment(originalSize);
+            storedBytes.increment(storedSize);
+            savedBytes.increment(Math.max(0, originalSize - storedSize));
+        }
+        return new StoredFile(compress, originalSize, storedSize);
+    }
+
+    @Override
+    public StoredFile storeFile(Path source, Path target, String fileType, String fileName) throws IOException {
+        if (isEligible(fileType, fileName)) {
+            StoredFile storedFile = null;
+            try (InputStream in = Files.newInputStream(source)) {
+                byte[] sample = in.readNBytes(SAMPLE_SIZE);
+                if (compressesWell(sample)) {
+                    storedFile = write(new SequenceInputStream(new ByteArrayInputStream(sample), in), target, true);
+                }
+            }
+            if (storedFile != null) {
+                Files.delete(source);
+                return storedFile;
+            }
+        }
+
+        // Kept as-is, so the file is moved rather than copied
+        long size = Files.size(source);
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        return new StoredFile(false, size, size);
+    }
+
+    @Override
+    public InputStream openForRead(Path path, boolean compressed) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        return compressed ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    private boolean isEligible(String fileType, String fileName) {
+        if (!compressionEnabled || fileType == null || FileUtils.isAlreadyCompressed(fileType, fileName)) {
+            return false;
+        }
+        // Ignore parameters such as "; charset=UTF-8"
+        String mediaType = fileType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return compressibleTypes.contains(mediaType);
+    }
+
+    private boolean compressesWell(byte[] sample) {
+        if (sample.length == 0) {
+            return false;
+        }
+
+        long limit = (long) (sample.length * maxRatio);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long compressedSize = 0;
+            while (!deflater.finished() && compressedSize <= limit) {
+                compressedSize += deflater.deflate(buffer);
+            }
+            return compressedSize <= limit;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        private FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.service.MailTransportService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends mail over a small pool of authenticated SMTP connections. A worker borrows one
+ * connection for a whole batch, so the handshake and AUTH are paid once per connection rather
+ * than once per message. Sends are rate-limited per recipient domain, since providers throttle
+ * (or block) senders that exceed their limits.
+ */
+@Service
+public class MailTransportServiceImpl implements MailTransportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailTransportServiceImpl.class);
+
+    // Bounds the per-domain bucket map; buckets are cheap to rebuild, so it is simply cleared
+    private static final int MAX_TRACKED_DOMAINS = 10_000;
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<PooledTransport> idleTransports = new LinkedBlockingQueue<>();
+    private final Semaphore connectionPermits;
+    private final Map<String, TokenBucket> domainBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Double> providerRates;
+    private final Timer sendLatency;
+
+    @Value("${app.mail.transport.borrow-timeout-ms}")
+    private long borrowTimeoutMs;
+
+    @Value("${app.mail.transport.max-idle-seconds}")
+    private long maxIdleSeconds;
+
+    @Value("${app.mail.transport.max-messages-per-connection}")
+    private int maxMessagesPerConnection;
+
+    @Value("${app.mail.transport.rate-limit.default-per-second}")
+    private double defaultRatePerSecond;
+
+    @Autowired
+    public MailTransportServiceImpl(
+            JavaMailSenderImpl mailSender,
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.transport.pool-size}") int poolSize,
+            @Value("${app.mail.transport.rate-limit.providers}") String[] providerRates) {
+        this.mailSender = mailSender;
+        this.connectionPermits = new Semaphore(poolSize);
+        this.providerRates = parseProviderRates(providerRates);
+
+        this.sendLatency = Timer.builder("warrantyhub.mail.send.latency")
+                .description("Time to hand one message to the SMTP server")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.mail.transport.idle", idleTransports, BlockingQueue::size)
+                .description("Open SMTP connections waiting in the pool")
+                .register(meterRegistry);
+        Gauge.builder("warrantyhub.mail.transport.active", connectionPermits, permits -> poolSize - permits.availablePermits())
+                .description("SMTP connections currently borrowed by a worker")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    /**
+     * Takes a send slot for the recipient's domain. Returns zero when the message may go now,
+     * otherwise how long to wait before the domain has capacity again.
+     */
+    @Override
+    public Duration reserveSendSlot(String recipient) {
+        String domain = domainOf(recipient);
+        if (domainBuckets.size() > MAX_TRACKED_DOMAINS) {
+            domainBuckets.clear();
+        }
+        TokenBucket bucket = domainBuckets.computeIfAbsent(domain,
+                d -> new TokenBucket(providerRates.getOrDefault(d, defaultRatePerSecond)));
+        return Duration.ofNanos(bucket.tryAcquire());
+    }
+
+    /**
+     * Sends all messages over one pooled connection. Returns the messages that failed with
+     * their cause; a connection-level failure fails the rest of the batch.
+     */
+    @Override
+    public Map<MimeMessage, Exception> sendBatch(List<MimeMessage> messages) {
+        Map<MimeMessage, Exception> failures = new IdentityHashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        PooledTransport pooled;
+        try {
+            pooled = borrow();
+        } catch (Exception ex) {
+            messages.forEach(message -> failures.put(message, ex));
+            return failures;
+        }
+
+        boolean broken = false;
+        for (int i = 0; i < messages.size(); i++) {
+            MimeMessage message = messages.get(i);
+            if (broken) {
+                failures.put(message, new MessagingException("SMTP connection lost earlier in the batch"));
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                if (message.getSentDate() == null) {
+                    message.setSentDate(new Date());
+                }
+                message.saveChanges();
+                pooled.transport.sendMessage(message, message.getAllRecipients());
+                pooled.messagesSent++;
+            } catch (MessagingException ex) {
+                failures.put(message, ex);
+                // A rejected recipient leaves the connection usable; anything else may not
+                broken = !pooled.transport.isConnected();
+            } finally {
+                sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        release(pooled, broken);
+        return failures;
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.poll()) != null) {
+            pooled.close();
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException, InterruptedException {
+        if (!connectionPermits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("Timed out waiting for an SMTP connection");
+        }
+        try {
+            PooledTransport pooled;
+            while ((pooled = idleTransports.poll()) != null) {
+                if (isReusable(pooled) && pooled.transport.isConnected()) {
+                    return pooled;
+                }
+                pooled.close();
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException ex) {
+            connectionPermits.release();
+            throw ex;
+        }
+    }
+
+    private void release(PooledTransport pooled, boolean broken) {
+        pooled.lastUsedNanos = System.nanoTime();
+        if (broken || pooled.messagesSent >= maxMessagesPerConnection) {
+            pooled.close();
+        } else {
+            idleTransports.offer(pooled);
+        }
+        connectionPermits.release();
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+        Transport transport = mailSender.getSession().getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        logger.debug("Opened SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return new PooledTransport(transport);
+    }
+
+    private boolean isReusable(PooledTransport pooled) {
+        long idleNanos = System.nanoTime() - pooled.lastUsedNanos;
+        return idleNanos < TimeUnit.SECONDS.toNanos(maxIdleSeconds)
+                && pooled.messagesSent < maxMessagesPerConnection;
+    }
+
+    private static String domainOf(String recipient) {
+        int at = recipient.lastIndexOf('@');
+        return (at >= 0 ? recipient.substring(at + 1) : recipient).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses entries of the form {@code domain:messagesPerSecond}
+     */
+    private static Map<String, Double> parseProviderRates(String[] entries) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : entries) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            rates.put(entry.substring(0, separator).trim().toLowerCase(Locale.ROOT),
+                    Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+        return rates;
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private long lastUsedNanos = System.nanoTime();
+        private int messagesSent;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException ex) {
+                logger.debug("Error closing SMTP connection: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Token bucket holding up to one second of sends
+     */
+    private static final class TokenBucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final double ratePerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        private TokenBucket(double ratePerSecond) {
+            this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1.0, ratePerSecond);
+            this.tokens = capacity;
+        }
+
+        /**
+         * Returns 0 when a token was taken, otherwise the nanoseconds until one is available
+         */
+        private long tryAcquire() {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerNano);
+                lastRefillNanos = now;
+                if (tokens >= 1.0) {
+                    tokens -= 1.0;
+                    return 0;
+                }
+                return (long) Math.ceil((1.0 - tokens) / ratePerNano);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -3,19 +3,35 @@ package com.warrantyhub.service.impl;
 import com.warrantyhub.dto.request.MaintenanceRecordRequest;
 import com.warrantyhub.dto.response.ApiResponse;
 import com.warrantyhub.dto.response.DeviceDTO;
+import com.warrantyhub.dto.response.PartUsageDTO;
 import com.warrantyhub.model.Device;
 import com.warrantyhub.model.MaintenanceRecord;
+import com.warrantyhub.model.Part;
 import com.warrantyhub.model.User;
+import com.warrantyhub.exception.BadRequestException;
+import com.warrantyhub.exception.PreconditionFailedException;
 import com.warrantyhub.exception.ResourceNotFoundException;
 import com.warrantyhub.exception.UnauthorizedException;
 import com.warrantyhub.repository.DeviceRepository;
 import com.warrantyhub.repository.MaintenanceRecordRepository;
+import com.warrantyhub.repository.PartRepository;
 import com.warrantyhub.repository.UserRepository;
 import com.warrantyhub.service.DeviceService;
 import com.warrantyhub.service.MaintenanceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class MaintenanceServiceImpl implements MaintenanceService {
@@ -23,21 +39,34 @@ public class MaintenanceServiceImpl implements MaintenanceService {
     private final DeviceRepository deviceRepository;
     private final MaintenanceRecordRepository maintenanceRecordRepository;
     private final UserRepository userRepository;
+    private final PartRepository partRepository;
     private final DeviceService deviceService;
+    private final TransactionTemplate catalogTemplate;
+
+    // parts.name is a VARCHAR(255)
+    private static final int MAX_PART_NAME_LENGTH = 255;
 
     @Autowired
     public MaintenanceServiceImpl(
             DeviceRepository deviceRepository,
             MaintenanceRecordRepository maintenanceRecordRepository,
             UserRepository userRepository,
-            DeviceService deviceService) {
+            PartRepository partRepository,
+            DeviceService deviceService,
+            PlatformTransactionManager transactionManager) {
         this.deviceRepository = deviceRepository;
         this.maintenanceRecordRepository = maintenanceRecordRepository;
         this.userRepository = userRepository;
+        this.partRepository = partRepository;
         this.deviceService = deviceService;
+        // New names are added and read back in their own transaction: under REPEATABLE READ the
+        // caller's snapshot cannot see a name another request committed after it started
+        this.catalogTemplate = new TransactionTemplate(transactionManager);
+        this.catalogTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     @Override
+    @Transactional
     public DeviceDTO addMaintenanceRecord(Long deviceId, MaintenanceRecordRequest request, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
 
@@ -56,19 +85,23 @@ public class MaintenanceServiceImpl implements MaintenanceService {
         record.setDescription(request.getDescription());
         record.setCost(request.getCost());
         record.setServiceProvider(request.getServiceProvider());
-        record.setPartsReplaced(request.getPartsReplaced());
+        record.getParts().addAll(resolveParts(request.getPartsReplaced()));
         record.setNextScheduledDate(request.getNextScheduledDate());
         record.setDevice(device);
 
-        // Save record
+        // Save record and keep the device's history in step for the response; flushed so the
+        // response carries the versions the insert wrote
         maintenanceRecordRepository.save(record);
+        device.getMaintenanceHistory().add(record);
+        maintenanceRecordRepository.flush();
 
         // Return updated device
         return deviceService.getDeviceById(deviceId, authentication);
     }
 
     @Override
-    public DeviceDTO updateMaintenanceRecord(Long deviceId, Long recordId, MaintenanceRecordRequest request, Authentication authentication) {
+    @Transactional
+    public DeviceDTO updateMaintenanceRecord(Long deviceId, Long recordId, MaintenanceRecordRequest request, Set<Long> expectedVersions, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
 
         Device device = deviceRepository.findById(deviceId)
@@ -87,6 +120,10 @@ public class MaintenanceServiceImpl implements MaintenanceService {
         if (!record.getDevice().getId().equals(deviceId)) {
             throw new UnauthorizedException("Maintenance record does not belong to the specified device");
         }
+        if (expectedVersions != null && !expectedVersions.contains(record.getVersion())) {
+            throw new PreconditionFailedException("Maintenance record is no longer at the version given in If-Match"
+                    + "; fetch it again and reapply the changes");
+        }
 
         // Update record
         record.setDate(request.getDate());
@@ -94,17 +131,22 @@ public class MaintenanceServiceImpl implements MaintenanceService {
         record.setDescription(request.getDescription());
         record.setCost(request.getCost());
         record.setServiceProvider(request.getServiceProvider());
-        record.setPartsReplaced(request.getPartsReplaced());
         record.setNextScheduledDate(request.getNextScheduledDate());
 
-        // Save record
-        maintenanceRecordRepository.save(record);
+        // Diff the parts in place: only removed and added parts touch maintenance_record_parts
+        Set<Part> parts = resolveParts(request.getPartsReplaced());
+        record.getParts().retainAll(parts);
+        record.getParts().addAll(parts);
+
+        // Save record, flushing so the returned device shows the record's incremented version
+        maintenanceRecordRepository.saveAndFlush(record);
 
         // Return updated device
         return deviceService.getDeviceById(deviceId, authentication);
     }
 
     @Override
+    @Transactional
     public ApiResponse deleteMaintenanceRecord(Long deviceId, Long recordId, Authentication authentication) {
         User user = getUserFromAuthentication(authentication);
 
@@ -131,6 +173,63 @@ public class MaintenanceServiceImpl implements MaintenanceService {
         return new ApiResponse(true, "Maintenance record deleted successfully");
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<PartUsageDTO> getPartUsage(Authentication authentication) {
+        User user = getUserFromAuthentication(authentication);
+        return partRepository.findUsageByUserId(user.getId()).stream()
+                .map(usage -> new PartUsageDTO(usage.getName(), usage.getRecordCount(), usage.getLastReplaced()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps part names to catalog entries, adding names not seen before. Names are trimmed and
+     * blank or repeated names dropped; the request order is kept.
+     */
+    private Set<Part> resolveParts(List<String> names) {
+        Set<String> wanted = new LinkedHashSet<>();
+        if (names != null) {
+            for (String name : names) {
+                if (name == null || name.isBlank()) {
+                    continue;
+                }
+                String trimmed = name.trim();
+                if (trimmed.length() > MAX_PART_NAME_LENGTH) {
+                    throw new BadRequestException("Part names must be at most " + MAX_PART_NAME_LENGTH + " characters");
+                }
+                wanted.add(trimmed);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return new LinkedHashSet<>();
+        }
+
+        Map<String, Part> catalog = new HashMap<>();
+        partRepository.findByNameIn(wanted).forEach(part -> catalog.put(part.getName(), part));
+        List<String> missing = wanted.stream()
+                .filter(name -> !catalog.containsKey(name))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            // The parts come back detached; the join table only needs their ids, and loading them
+            // again here would go through the snapshot that cannot see them
+            List<Part> added = catalogTemplate.execute(status -> {
+                missing.forEach(partRepository::insertIfAbsent);
+                return partRepository.findByNameIn(missing);
+            });
+            added.forEach(part -> catalog.put(part.getName(), part));
+        }
+
+        Set<Part> parts = new LinkedHashSet<>();
+        for (String name : wanted) {
+            Part part = catalog.get(name);
+            if (part == null) {
+                throw new IllegalStateException("Part '" + name + "' is missing from the catalog after inserting it");
+            }
+            parts.add(part);
+        }
+        return parts;
+    }
+
     private User getUserFromAuthentication(Authentication authentication) {
         return userRepository.findByEmail(authentication.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
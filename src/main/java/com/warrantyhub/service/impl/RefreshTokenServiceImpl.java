@@ -0,0 +1,290 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.exception.UnauthorizedException;
+import com.warrantyhub.model.RefreshSession;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.RefreshSessionRepository;
+import com.warrantyhub.repository.UserRepository;
+import com.warrantyhub.service.RefreshTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Refresh sessions, one per user and device. Every refresh rotates the token; presenting a
+ * token that was already rotated away means it was copied, so the whole session is revoked.
+ */
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Duration REFRESH_TOKEN_LIFETIME = Duration.ofDays(7);
+    private static final String DEFAULT_DEVICE_ID = "default";
+
+    private final RefreshSessionRepository refreshSessionRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final SessionCache sessionCache;
+
+    @Value("${app.auth.sessions.max-per-user}")
+    private int maxSessionsPerUser;
+
+    @Autowired
+    public RefreshTokenServiceImpl(
+            RefreshSessionRepository refreshSessionRepository,
+            UserRepository userRepository,
+            @Value("${app.auth.refresh-token-cache.max-size}") int cacheMaxSize,
+            @Value("${app.auth.refresh-token-cache.ttl-seconds}") long cacheTtlSeconds) {
+        this.refreshSessionRepository = refreshSessionRepository;
+        this.userRepository = userRepository;
+        this.sessionCache = new SessionCache(cacheMaxSize, Duration.ofSeconds(cacheTtlSeconds));
+    }
+
+    /**
+     * Starts (or restarts) the session for this device and returns its first token. The raw
+     * token is returned to the caller only; the table keeps its digest.
+     *
+     * Logins of one user are serialized on the user's row: two first logins on the same device
+     * would otherwise both insert a session and one would fail on ux_refresh_sessions_user_device.
+     * The later one restarts the session the earlier one created, as a second login would.
+     */
+    @Override
+    @Transactional
+    public String createRefreshToken(User user, String deviceId) {
+        String device = normalizeDeviceId(deviceId);
+        String token = generateToken();
+        Instant now = Instant.now();
+
+        userRepository.lockById(user.getId());
+        RefreshSession session = refreshSessionRepository.findByUserIdAndDeviceId(user.getId(), device)
+                .orElseGet(() -> newSession(user, device, now));
+        session.setTokenHash(digest(token));
+        session.setPreviousTokenHash(null);
+        session.setExpiryDate(now.plus(REFRESH_TOKEN_LIFETIME));
+        session.setLastUsedAt(now);
+        refreshSessionRepository.save(session);
+
+        evictAfterCommit(user.getId());
+        return token;
+    }
+
+    /**
+     * Does not roll back on rejection, so revoking a session on token reuse sticks
+     */
+    @Override
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public RotatedToken rotateRefreshToken(String refreshToken) {
+        byte[] tokenHash = digest(refreshToken);
+        String cacheKey = HexFormat.of().formatHex(tokenHash);
+        Instant now = Instant.now();
+
+        CachedSession cached = sessionCache.remove(cacheKey);
+        if (cached == null) {
+            RefreshSessionRepository.RefreshSessionView view = refreshSessionRepository.findViewByTokenHash(tokenHash)
+                    .orElse(null);
+            if (view == null) {
+                detectReuse(tokenHash);
+                throw new UnauthorizedException("Invalid refresh token");
+            }
+            cached = new CachedSession(view.getId(), view.getUserId(), view.getUserEmail(), view.getExpiryDate(), null);
+        }
+
+        // Expired sessions are left for the purge job rather than deleted inline
+        if (cached.expiryDate.isBefore(now)) {
+            throw new UnauthorizedException("Refresh token has expired. Please login again");
+        }
+
+        String newToken = generateToken();
+        byte[] newHash = digest(newToken);
+        Instant expiryDate = now.plus(REFRESH_TOKEN_LIFETIME);
+        if (refreshSessionRepository.rotateToken(cached.sessionId, tokenHash, newHash, expiryDate, now) == 0) {
+            // Another request rotated this token first (or the cache entry was stale)
+            detectReuse(tokenHash);
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+
+        CachedSession rotated = new CachedSession(cached.sessionId, cached.userId, cached.email, expiryDate, null);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sessionCache.put(HexFormat.of().formatHex(newHash), rotated);
+            }
+        });
+        return new RotatedToken(cached.userId, cached.email, newToken);
+    }
+
+    /**
+     * Revokes the session of one device, or every session of the user when no device is given
+     */
+    @Override
+    @Transactional
+    public void revokeRefreshTokens(User user, String deviceId) {
+        if (deviceId == null || deviceId.isBlank()) {
+            refreshSessionRepository.deleteByUserId(user.getId());
+        } else {
+            refreshSessionRepository.deleteByUserIdAndDeviceId(user.getId(), normalizeDeviceId(deviceId));
+        }
+        evictAfterCommit(user.getId());
+    }
+
+    /**
+     * Deletes one batch of expired sessions by id, read from the expiry index
+     */
+    @Override
+    @Transactional
+    public int purgeExpiredSessions(int limit) {
+        List<Long> ids = refreshSessionRepository.findExpiredIds(Instant.now(), PageRequest.of(0, limit));
+        return ids.isEmpty() ? 0 : refreshSessionRepository.deleteByIdIn(ids);
+    }
+
+    private RefreshSession newSession(User user, String deviceId, Instant now) {
+        // Keep the number of devices per user bounded by dropping the least recently used ones
+        List<RefreshSession> existing = refreshSessionRepository.findByUserIdOrderByLastUsedAtAsc(user.getId());
+        int excess = existing.size() - maxSessionsPerUser + 1;
+        if (excess > 0) {
+            refreshSessionRepository.deleteAllInBatch(existing.subList(0, excess));
+        }
+
+        RefreshSession session = new RefreshSession();
+        session.setUser(user);
+        session.setUserEmail(user.getEmail());
+        session.setDeviceId(deviceId);
+        session.setCreatedAt(now);
+        return session;
+    }
+
+    private void detectReuse(byte[] tokenHash) {
+        if (refreshSessionRepository.deleteByPreviousTokenHash(tokenHash) > 0) {
+            logger.warn("Rotated refresh token was presented again; the session has been revoked");
+        }
+    }
+
+    /**
+     * Evicts now and again after commit, so a concurrent refresh cannot re-cache the old row
+     * between the eviction and the commit.
+     */
+    private void evictAfterCommit(Long userId) {
+        sessionCache.evictUser(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sessionCache.evictUser(userId);
+                }
+            });
+        }
+    }
+
+    private String generateToken() {
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+    }
+
+    private static String normalizeDeviceId(String deviceId) {
+        if (deviceId == null || deviceId.isBlank()) {
+            return DEFAULT_DEVICE_ID;
+        }
+        String trimmed = deviceId.trim();
+        return trimmed.length() > 64 ? trimmed.substring(0, 64) : trimmed;
+    }
+
+    private static byte[] digest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static final class CachedSession {
+        private final Long sessionId;
+        private final Long userId;
+        private final String email;
+        private final Instant expiryDate;
+        private final Instant cachedUntil;
+
+        private CachedSession(Long sessionId, Long userId, String email, Instant expiryDate, Instant cachedUntil) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.email = email;
+            this.expiryDate = expiryDate;
+            this.cachedUntil = cachedUntil;
+        }
+    }
+
+    /**
+     * Bounded LRU cache of current session tokens keyed by digest, so a refresh can go straight
+     * to the conditional rotate without looking the token up first. Entries also expire after
+     * a short TTL, which bounds how long another node holds on to a revoked session.
+     */
+    private static final class SessionCache {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Duration ttl;
+        private final LinkedHashMap<String, CachedSession> entries;
+
+        private SessionCache(int maxSize, Duration ttl) {
+            this.ttl = ttl;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedSession> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        /**
+         * Tokens are single-use, so a hit is taken out of the cache
+         */
+        private CachedSession remove(String key) {
+            lock.lock();
+            try {
+                CachedSession cached = entries.remove(key);
+                return cached != null && cached.cachedUntil.isAfter(Instant.now()) ? cached : null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(String key, CachedSession session) {
+            CachedSession cached = new CachedSession(session.sessionId, session.userId, session.email,
+                    session.expiryDate, Instant.now().plus(ttl));
+            lock.lock();
+            try {
+                entries.put(key, cached);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void evictUser(Long userId) {
+            lock.lock();
+            try {
+                entries.values().removeIf(cached -> cached.userId.equals(userId));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -21,7 +22,7 @@ import java.util.Optional;
  * and authorities, for authentication and authorization.
  */
 @Service
-public class userDetailsServiceImpl implements UserDetailsService {
+public class userDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     // Assuming a UserRepository exists to interact with the database.
     // This repository should have a method to find a User by their email.
@@ -78,4 +79,18 @@ public class userDetailsServiceImpl implements UserDetailsService {
         }
     }
 
+    /**
+     * Called by Spring Security after a successful login when the stored hash uses an older
+     * BCrypt cost; stores the hash recomputed at the current cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.findByEmail(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newPassword);
+            userRepository.save(user);
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
 }
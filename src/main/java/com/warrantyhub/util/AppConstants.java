@@ -1,4 +1,12 @@
 package com.warrantyhub.util;
 
 public class AppConstants {
+
+    public static final int MAX_DOCUMENTS_PER_DEVICE = 10;
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private AppConstants() {
+    }
 }
@@ -0,0 +1,56 @@
+package com.warrantyhub.util;
+
+import com.warrantyhub.exception.BadRequestException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ETags for versioned entities: the entity's @Version value as a strong tag, e.g. "3".
+ */
+public class EntityTags {
+
+    // One entity-tag of a comma-separated list: optional weak prefix, quoted opaque value
+    private static final Pattern ENTITY_TAG = Pattern.compile("\\s*(W/)?\"([^\"]*)\"\\s*(?:,|$)");
+
+    private EntityTags() {
+    }
+
+    public static String format(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Returns the versions an If-Match header accepts, or null when the header is absent or "*"
+     * (any current version). If-Match uses strong comparison, so weak tags and tags this API never
+     * issued match nothing; a header made only of those yields an empty set, which fails the
+     * precondition (412) rather than the request (400). Only a header that is not a list of
+     * entity-tags at all is rejected as malformed.
+     */
+    public static Set<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        Set<Long> versions = new HashSet<>();
+        Matcher matcher = ENTITY_TAG.matcher(ifMatch);
+        int position = 0;
+        while (position < ifMatch.length()) {
+            matcher.region(position, ifMatch.length());
+            if (!matcher.lookingAt()) {
+                throw new BadRequestException("If-Match must be \"*\" or a list of ETags returned by this API, e.g. \"3\"");
+            }
+            if (matcher.group(1) == null) {
+                try {
+                    versions.add(Long.parseLong(matcher.group(2)));
+                } catch (NumberFormatException ignored) {
+                    // Not a version tag, so it cannot match
+                }
+            }
+            position = matcher.end();
+        }
+        return versions;
+    }
+}
@@ -1,4 +1,115 @@
 package com.warrantyhub.util;
 
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
 public class FileUtils {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Set<String> COMPRESSED_CONTENT_TYPES = Set.of(
+            "application/pdf",
+            "application/zip",
+            "application/gzip",
+            "application/x-7z-compressed",
+            "application/x-rar-compressed",
+            "image/jpeg",
+            "image/png",
+            "image/gif",
+            "image/webp",
+            "image/heic"
+    );
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "pdf", "zip", "gz", "7z", "rar", "jpg", "jpeg", "png", "gif", "webp", "heic",
+            "docx", "xlsx", "pptx", "mp3", "mp4", "mov"
+    );
+
+    private FileUtils() {
+    }
+
+    /**
+     * Returns true when the file is already in a compressed format, so deflating it again
+     * would only burn CPU without making it smaller.
+     */
+    public static boolean isAlreadyCompressed(String contentType, String fileName) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (COMPRESSED_CONTENT_TYPES.contains(type)
+                    || type.startsWith("video/")
+                    || type.startsWith("audio/")
+                    || type.startsWith("application/vnd.openxmlformats-officedocument.")) {
+                return true;
+            }
+        }
+        String extension = FilenameUtils.getExtension(fileName);
+        return extension != null && COMPRESSED_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Strips path separators and other characters that would let an entry escape the archive root.
+     */
+    public static String toSafeEntryName(String fileName) {
+        String name = FilenameUtils.getName(fileName == null ? "" : fileName);
+        name = name.replaceAll("[\\\\/:*?\"<>|]", "_");
+        return name.isBlank() ? "document" : name;
+    }
+
+    /**
+     * Streams a file into the archive. Already-compressed files are written as STORED entries,
+     * which need their size and CRC up front, so those are read twice instead of being deflated.
+     */
+    public static void writeZipEntry(ZipOutputStream zip, String entryName, Path file, boolean store) throws IOException {
+        ZipEntry entry = new ZipEntry(entryName);
+        entry.setLastModifiedTime(Files.getLastModifiedTime(file));
+
+        if (store) {
+            long size = Files.size(file);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(size);
+            entry.setCompressedSize(size);
+            entry.setCrc(crc32(file));
+        } else {
+            entry.setMethod(ZipEntry.DEFLATED);
+        }
+
+        zip.putNextEntry(entry);
+        try (InputStream in = Files.newInputStream(file)) {
+            in.transferTo(zip);
+        }
+        zip.closeEntry();
+    }
+
+    /**
+     * Deflates a stream into the archive, for content that has no usable file on disk
+     * (for example a document stored compressed that is inflated while reading).
+     */
+    public static void writeZipEntry(ZipOutputStream zip, String entryName, InputStream content) throws IOException {
+        ZipEntry entry = new ZipEntry(entryName);
+        entry.setMethod(ZipEntry.DEFLATED);
+        zip.putNextEntry(entry);
+        content.transferTo(zip);
+        zip.closeEntry();
+    }
+
+    private static long crc32(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
 }
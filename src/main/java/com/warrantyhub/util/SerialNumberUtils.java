@@ -0,0 +1,24 @@
+package com.warrantyhub.util;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class SerialNumberUtils {
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SerialNumberUtils() {
+    }
+
+    /**
+     * Upper-cases a serial number and drops spaces, dashes and other separators, so
+     * "ab-123 x" and "AB123X" are the same serial. Returns null when nothing is left.
+     */
+    public static String normalize(String serialNumber) {
+        if (serialNumber == null) {
+            return null;
+        }
+        String normalized = NON_ALPHANUMERIC.matcher(serialNumber).replaceAll("").toUpperCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+}
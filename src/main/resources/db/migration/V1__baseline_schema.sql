@@ -0,0 +1,81 @@
+-- Baseline: the schema exactly as Hibernate generated it under ddl-auto=update before migrations
+-- were introduced, constraint names included. Existing databases are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and start from V2, so nothing added later belongs here.
+
+CREATE TABLE users (
+    id                            BIGINT       NOT NULL AUTO_INCREMENT,
+    email                         VARCHAR(255) NOT NULL,
+    enabled                       BIT          NOT NULL,
+    name                          VARCHAR(255) NOT NULL,
+    password                      VARCHAR(255),
+    email_notifications           BIT,
+    warranty_expiration_reminders INTEGER,
+    provider                      TINYINT,
+    provider_id                   VARCHAR(255),
+    reset_password_token          VARCHAR(255),
+    reset_password_token_expiry   DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE devices (
+    id                BIGINT         NOT NULL AUTO_INCREMENT,
+    manufacturer      VARCHAR(255),
+    model             VARCHAR(255),
+    name              VARCHAR(255)   NOT NULL,
+    notes             VARCHAR(255),
+    purchase_date     DATE,
+    purchase_price    DECIMAL(38, 2),
+    serial_number     VARCHAR(255),
+    warranty_end_date DATE,
+    warranty_provider VARCHAR(255),
+    warranty_status   VARCHAR(255)   NOT NULL,
+    user_id           BIGINT         NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE maintenance_records (
+    id                  BIGINT         NOT NULL AUTO_INCREMENT,
+    cost                DECIMAL(38, 2),
+    date                DATE           NOT NULL,
+    description         VARCHAR(255),
+    next_scheduled_date DATE,
+    service_provider    VARCHAR(255),
+    type                VARCHAR(255),
+    device_id           BIGINT         NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE maintenance_parts_replaced (
+    maintenance_id BIGINT NOT NULL,
+    part_name      VARCHAR(255)
+) ENGINE = InnoDB;
+
+CREATE TABLE documents (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    file_path        VARCHAR(255) NOT NULL,
+    file_type        VARCHAR(255),
+    file_url         VARCHAR(255) NOT NULL,
+    name             VARCHAR(255) NOT NULL,
+    stored_file_name VARCHAR(255) NOT NULL,
+    upload_date      DATE         NOT NULL,
+    device_id        BIGINT       NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE refresh_tokens (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    expiry_date DATETIME(6)  NOT NULL,
+    token       VARCHAR(255) NOT NULL,
+    user_id     BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+ALTER TABLE refresh_tokens ADD CONSTRAINT UK_ghpmfn23vmxfu3spu3lfg4r2d UNIQUE (token);
+ALTER TABLE refresh_tokens ADD CONSTRAINT UK_7tdcd6ab5wsgoudnvj7xf1b7l UNIQUE (user_id);
+ALTER TABLE users ADD CONSTRAINT UK_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email);
+
+ALTER TABLE devices ADD CONSTRAINT FKrfbri1ymrwywdydc4dgywe1bt FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE documents ADD CONSTRAINT FKq2xorvafy2mx91e99knksdi60 FOREIGN KEY (device_id) REFERENCES devices (id);
+ALTER TABLE maintenance_parts_replaced ADD CONSTRAINT FKo8pqx99tnayvj2ln8dn7sb3l2 FOREIGN KEY (maintenance_id) REFERENCES maintenance_records (id);
+ALTER TABLE maintenance_records ADD CONSTRAINT FKjlw5jqfiu61eg06lvtnigqg7i FOREIGN KEY (device_id) REFERENCES devices (id);
+ALTER TABLE refresh_tokens ADD CONSTRAINT FK1lih5y2npsf8u5o3vhdb9y0os FOREIGN KEY (user_id) REFERENCES users (id);
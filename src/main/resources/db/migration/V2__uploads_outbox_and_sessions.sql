@@ -0,0 +1,82 @@
+-- Tables and columns added on top of the baseline: per-device document counters, compressed
+-- document storage, resumable uploads, the email outbox and refresh sessions.
+
+-- Quota counter maintained by the upload paths; existing devices start from their current count
+ALTER TABLE devices ADD COLUMN document_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE devices d SET document_count = (SELECT COUNT(*) FROM documents doc WHERE doc.device_id = d.id);
+
+-- Existing documents were stored uncompressed and their sizes were never recorded
+ALTER TABLE documents
+    ADD COLUMN compressed  BIT    NOT NULL DEFAULT 0,
+    ADD COLUMN file_size   BIGINT NULL,
+    ADD COLUMN stored_size BIGINT NULL;
+
+-- Stored names start with a random UUID; the reconciliation job and downloads look rows up by them
+ALTER TABLE documents ADD CONSTRAINT ux_documents_stored_file_name UNIQUE (stored_file_name);
+
+CREATE TABLE document_uploads (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    upload_id        VARCHAR(36)  NOT NULL,
+    file_name        VARCHAR(255) NOT NULL,
+    file_type        VARCHAR(255),
+    total_size       BIGINT       NOT NULL,
+    received_bytes   BIGINT       NOT NULL,
+    checksum         VARCHAR(64)  NOT NULL,
+    stored_file_name VARCHAR(255) NOT NULL,
+    created_at       DATETIME(6)  NOT NULL,
+    updated_at       DATETIME(6)  NOT NULL,
+    device_id        BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT ux_document_uploads_upload_id UNIQUE (upload_id),
+    CONSTRAINT fk_document_uploads_device FOREIGN KEY (device_id) REFERENCES devices (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE email_outbox (
+    id              BIGINT        NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    template        VARCHAR(255)  NOT NULL,
+    variables       TEXT,
+    status          VARCHAR(16)   NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    next_attempt_at DATETIME(6)   NOT NULL,
+    claimed_at      DATETIME(6),
+    sent_at         DATETIME(6),
+    last_error      VARCHAR(1000),
+    created_at      DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_email_outbox_status_next_attempt (status, next_attempt_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE refresh_sessions (
+    id                  BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id             BIGINT       NOT NULL,
+    user_email          VARCHAR(255) NOT NULL,
+    device_id           VARCHAR(64)  NOT NULL,
+    token_hash          BINARY(32)   NOT NULL,
+    previous_token_hash BINARY(32),
+    expiry_date         DATETIME(6)  NOT NULL,
+    created_at          DATETIME(6)  NOT NULL,
+    last_used_at        DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT ux_refresh_sessions_user_device UNIQUE (user_id, device_id),
+    UNIQUE INDEX ux_refresh_sessions_token_hash (token_hash, expiry_date, user_id, user_email),
+    INDEX ix_refresh_sessions_previous_token_hash (previous_token_hash),
+    INDEX ix_refresh_sessions_expiry_date (expiry_date),
+    CONSTRAINT fk_refresh_sessions_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- Replaced by refresh_sessions. Live refresh tokens carry over as the session of the default
+-- device, keyed by the SHA-256 of the token as RefreshTokenServiceImpl computes it (the old
+-- tokens are ASCII UUIDs, so the hash does not depend on the column's character set), and their
+-- holders stay signed in. Expired tokens and tokens without a user are dropped.
+INSERT INTO refresh_sessions (user_id, user_email, device_id, token_hash, previous_token_hash,
+                              expiry_date, created_at, last_used_at)
+SELECT rt.user_id, u.email, 'default', UNHEX(SHA2(rt.token, 256)), NULL,
+       rt.expiry_date, NOW(6), NOW(6)
+FROM refresh_tokens rt
+JOIN users u ON u.id = rt.user_id
+WHERE rt.expiry_date > NOW(6);
+
+DROP TABLE refresh_tokens;
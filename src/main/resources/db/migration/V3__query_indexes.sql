@@ -0,0 +1,25 @@
+-- Indexes behind the repository queries. The composite indexes lead with the foreign key
+-- column, so they also serve the foreign keys and replace the single-column indexes MySQL
+-- created implicitly for them.
+
+-- DeviceRepository.findByUser and per-user warranty lookups
+CREATE INDEX ix_devices_user_warranty_end ON devices (user_id, warranty_end_date);
+
+-- DeviceRepository.findByWarrantyEndDateBetween (reminder jobs, across all users)
+CREATE INDEX ix_devices_warranty_end_date ON devices (warranty_end_date);
+
+-- Maintenance history per device, in date order
+CREATE INDEX ix_maintenance_records_device_date ON maintenance_records (device_id, date);
+
+-- MaintenanceRecordRepository.findByNextScheduledDateBetween
+CREATE INDEX ix_maintenance_records_next_scheduled ON maintenance_records (next_scheduled_date);
+
+-- DocumentRepository.findByDeviceIdOrderByIdAsc (InnoDB appends the primary key, so this is ordered by id too)
+CREATE INDEX ix_documents_device_id ON documents (device_id);
+
+-- DocumentUploadRepository.findTop100ByUpdatedAtBefore (stale upload cleanup)
+CREATE INDEX ix_document_uploads_updated_at ON document_uploads (updated_at);
+
+-- Password reset lookups by token, and the sweep of expired reset tokens
+ALTER TABLE users ADD CONSTRAINT ux_users_reset_password_token UNIQUE (reset_password_token);
+CREATE INDEX ix_users_reset_password_token_expiry ON users (reset_password_token_expiry);
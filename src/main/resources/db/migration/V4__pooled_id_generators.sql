@@ -0,0 +1,19 @@
+-- Ids are allocated in blocks of 50 from this table (pooled optimizer) instead of AUTO_INCREMENT,
+-- so Hibernate can batch inserts. Each row holds the upper end of the next block, so seeding with
+-- MAX(id) + 50 makes the first block start right after the existing rows. The AUTO_INCREMENT
+-- attribute stays on the id columns only for rows inserted by hand; such inserts must not be mixed
+-- with a running application.
+
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT       NOT NULL,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'users', COALESCE(MAX(id), 0) + 50 FROM users;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'devices', COALESCE(MAX(id), 0) + 50 FROM devices;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'maintenance_records', COALESCE(MAX(id), 0) + 50 FROM maintenance_records;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'documents', COALESCE(MAX(id), 0) + 50 FROM documents;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'document_uploads', COALESCE(MAX(id), 0) + 50 FROM document_uploads;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'email_outbox', COALESCE(MAX(id), 0) + 50 FROM email_outbox;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'refresh_sessions', COALESCE(MAX(id), 0) + 50 FROM refresh_sessions;
@@ -0,0 +1,27 @@
+-- Exact serial number lookups: serial_number upper-cased with separators removed, as
+-- SerialNumberUtils.normalize does for new and updated devices.
+ALTER TABLE devices ADD COLUMN serial_number_normalized VARCHAR(255) NULL;
+
+UPDATE devices
+SET serial_number_normalized = NULLIF(UPPER(REGEXP_REPLACE(serial_number, '[^[:alnum:]]', '')), '')
+WHERE serial_number IS NOT NULL;
+
+-- A user may already have registered the same serial twice for one manufacturer. The oldest
+-- device keeps the lookup key; the others are left without one until their serial is edited.
+UPDATE devices d
+    JOIN (SELECT id
+          FROM (SELECT id,
+                       ROW_NUMBER() OVER (PARTITION BY user_id, COALESCE(manufacturer, ''), serial_number_normalized
+                                          ORDER BY id) AS rn
+                FROM devices
+                WHERE serial_number_normalized IS NOT NULL) ranked
+          WHERE rn > 1) duplicates ON d.id = duplicates.id
+SET d.serial_number_normalized = NULL;
+
+-- A unique index admits any number of rows with a NULL in it, so it is built on the manufacturer
+-- with NULL mapped to '': devices without a manufacturer cannot share a serial either
+ALTER TABLE devices ADD COLUMN manufacturer_key VARCHAR(255) GENERATED ALWAYS AS (COALESCE(manufacturer, '')) VIRTUAL;
+
+-- Unique per user and manufacturer; leads with the lookup columns
+CREATE UNIQUE INDEX ux_devices_user_serial_manufacturer
+    ON devices (user_id, serial_number_normalized, manufacturer_key);
@@ -0,0 +1,5 @@
+-- Device list sorting: with the user filter leading, these return a user's devices already in
+-- name or purchase date order (warranty end date is covered by ix_devices_user_warranty_end),
+-- so sorted listings of large accounts do not need a filesort.
+CREATE INDEX ix_devices_user_purchase_date ON devices (user_id, purchase_date);
+CREATE INDEX ix_devices_user_name ON devices (user_id, name);
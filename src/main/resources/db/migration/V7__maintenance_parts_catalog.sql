@@ -0,0 +1,34 @@
+-- Replaced parts move from free-text rows per record (maintenance_parts_replaced) to a catalog
+-- of distinct names and a join table. Updates then insert and delete only the parts that changed.
+
+CREATE TABLE parts (
+    id   BIGINT       NOT NULL AUTO_INCREMENT,
+    -- Binary collation: "Battery" and "battery" remain distinct entries, as they were before
+    name VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT ux_parts_name UNIQUE (name)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- The primary key serves loading a record's parts; the reverse index serves lookups by part
+CREATE TABLE maintenance_record_parts (
+    maintenance_id BIGINT NOT NULL,
+    part_id        BIGINT NOT NULL,
+    PRIMARY KEY (maintenance_id, part_id),
+    INDEX ix_maintenance_record_parts_part (part_id, maintenance_id),
+    CONSTRAINT fk_maintenance_record_parts_record FOREIGN KEY (maintenance_id) REFERENCES maintenance_records (id),
+    CONSTRAINT fk_maintenance_record_parts_part FOREIGN KEY (part_id) REFERENCES parts (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- Names are trimmed and blanks dropped, as the application does for new records. A part listed
+-- twice on the same record is kept once.
+INSERT INTO parts (name)
+SELECT DISTINCT TRIM(part_name) COLLATE utf8mb4_bin
+FROM maintenance_parts_replaced
+WHERE part_name IS NOT NULL AND TRIM(part_name) <> '';
+
+INSERT INTO maintenance_record_parts (maintenance_id, part_id)
+SELECT DISTINCT mpr.maintenance_id, p.id
+FROM maintenance_parts_replaced mpr
+    JOIN parts p ON p.name = TRIM(mpr.part_name) COLLATE utf8mb4_bin;
+
+DROP TABLE maintenance_parts_replaced;
@@ -0,0 +1,4 @@
+-- @Version columns for devices and maintenance records. Every update increments the version, and
+-- PUT requests carrying an If-Match for an older version are rejected with 412.
+ALTER TABLE devices ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE maintenance_records ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,77 @@
+package com.warrantyhub.benchmark;
+
+import com.warrantyhub.service.impl.EmailTemplateRendererImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emails rendered per second by EmailTemplateRendererImpl, one message at a time as the outbox
+ * did before batching, and through renderBatch as it does now.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=EmailTemplateRendererBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateRendererBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+
+	private EmailTemplateRendererImpl renderer;
+	private List<Map<String, Object>> recipients;
+
+	@Setup
+	public void setUp() {
+		renderer = new EmailTemplateRendererImpl(new String[] {"email/welcome"}, 4);
+		renderer.preload();
+		recipients = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			recipients.add(Map.of("name", "User " + i, "frontendUrl", "https://warrantyhub.example.com"));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void renderOneByOne(Blackhole blackhole) {
+		for (Map<String, Object> variables : recipients) {
+			blackhole.consume(renderer.render("email/welcome", variables));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<String> renderBatch() {
+		return renderer.renderBatch("email/welcome", recipients);
+	}
+
+	@Test
+	void run() throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(EmailTemplateRendererBenchmark.class.getName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,201 @@
+package com.warrantyhub.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.warrantyhub.WarrantyHubApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the default thread-per-request mode with spring.threads.virtual.enabled: the highest
+ * number of concurrent clients each mode serves while keeping p99 latency under a fixed target.
+ *
+ * Each mode boots the whole application on the test profile and drives the real controllers:
+ * clients cycle through a device read with its maintenance history (JDBC), a document download
+ * (file I/O) and the device list. Clients run a closed loop, so a level passes only if the server
+ * keeps up with it. JDBC work stays bounded by the Hikari pool in both modes, so the gap between
+ * them depends on how much of a request's time is spent outside it. The numbers are only
+ * meaningful on a machine with spare cores for the clients; the harness reports them and does
+ * not assert an outcome.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=VirtualThreadLoadHarness [-Dharness.p99-target-ms=250]
+ */
+@Tag("benchmark")
+class VirtualThreadLoadHarness {
+
+	private static final long P99_TARGET_MS = Long.getLong("harness.p99-target-ms", 250);
+	private static final int[] CONCURRENCY_LEVELS = {10, 25, 50, 100, 200, 400, 800, 1600};
+	private static final Duration LEVEL_DURATION = Duration.ofSeconds(5);
+	// Incompressible, so it is stored and served as is
+	private static final int DOCUMENT_BYTES = 256 * 1024;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	private Path uploadDir;
+
+	@Test
+	void maxConcurrencyAtFixedP99() throws Exception {
+		int platform = maxConcurrencyWithinTarget("platform threads", false);
+		int virtual = maxConcurrencyWithinTarget("virtual threads", true);
+
+		System.out.printf("Max concurrent requests at p99 <= %d ms: platform threads %d, virtual threads %d%n",
+				P99_TARGET_MS, platform, virtual);
+	}
+
+	private int maxConcurrencyWithinTarget(String mode, boolean virtualThreads) throws Exception {
+		try (ConfigurableApplicationContext app = new SpringApplicationBuilder(WarrantyHubApiApplication.class)
+				.profiles("test")
+				.run("--server.port=0",
+						"--spring.threads.virtual.enabled=" + virtualThreads,
+						"--file.upload-dir=" + uploadDir.resolve(virtualThreads ? "virtual" : "platform"),
+						"--app.jwt.secret=" + Base64.getEncoder().encodeToString(new byte[64]),
+						"--logging.level.com.warrantyhub=WARN");
+			 ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			URI base = URI.create("http://localhost:" + app.getEnvironment().getProperty("local.server.port"));
+			HttpClient client = HttpClient.newBuilder().executor(clients).build();
+			List<HttpRequest> requests = seed(client, base);
+
+			runLevel(client, clients, requests, CONCURRENCY_LEVELS[0]); // warm-up
+
+			int best = 0;
+			for (int concurrency : CONCURRENCY_LEVELS) {
+				long p99 = runLevel(client, clients, requests, concurrency);
+				System.out.printf("%-16s concurrency %5d: p99 %5d ms%n", mode, concurrency, p99);
+				if (p99 > P99_TARGET_MS) {
+					break;
+				}
+				best = concurrency;
+			}
+			return best;
+		}
+	}
+
+	/**
+	 * Registers a user with a device, a maintenance record and a document, and returns the
+	 * authenticated requests the clients cycle through.
+	 */
+	private List<HttpRequest> seed(HttpClient client, URI base) throws IOException, InterruptedException {
+		JsonNode auth = send(client, HttpRequest.newBuilder(base.resolve("/api/auth/register")),
+				"{\"name\":\"Load Test\",\"email\":\"load@example.com\",\"password\":\"load-test-password\"}");
+		String authorization = "Bearer " + auth.get("token").asText();
+
+		JsonNode device = send(client, HttpRequest.newBuilder(base.resolve("/api/devices/new"))
+				.header("Authorization", authorization), "{\"name\":\"Laptop\",\"manufacturer\":\"Acme\"}");
+		String devicePath = "/api/devices/" + device.get("id").asText();
+
+		send(client, HttpRequest.newBuilder(base.resolve(devicePath + "/maintenance"))
+				.header("Authorization", authorization),
+				"{\"date\":\"2024-01-10\",\"type\":\"Repair\",\"partsReplaced\":[\"Battery\",\"Screen\"]}");
+
+		byte[] content = new byte[DOCUMENT_BYTES];
+		new Random(42).nextBytes(content);
+		String boundary = "harness-boundary";
+		ByteArrayOutputStream multipart = new ByteArrayOutputStream();
+		multipart.writeBytes(("--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"receipt.bin\"\r\n"
+				+ "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+		multipart.writeBytes(content);
+		multipart.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+		HttpResponse<String> upload = client.send(HttpRequest.newBuilder(base.resolve(devicePath + "/documents"))
+				.header("Authorization", authorization)
+				.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+				.POST(HttpRequest.BodyPublishers.ofByteArray(multipart.toByteArray()))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertThat(upload.statusCode()).as(upload.body()).isEqualTo(200);
+		String documentPath = devicePath + "/documents/" + objectMapper.readTree(upload.body()).get("id").asText();
+
+		List<HttpRequest> requests = new ArrayList<>();
+		for (String path : List.of(devicePath, documentPath, "/api/devices")) {
+			requests.add(HttpRequest.newBuilder(base.resolve(path))
+					.header("Authorization", authorization)
+					.timeout(Duration.ofSeconds(10))
+					.build());
+		}
+		return requests;
+	}
+
+	private JsonNode send(HttpClient client, HttpRequest.Builder request, String json)
+			throws IOException, InterruptedException {
+		HttpResponse<String> response = client.send(request
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertThat(response.statusCode()).as(response.body()).isBetween(200, 201);
+		return objectMapper.readTree(response.body());
+	}
+
+	/**
+	 * Runs {@code concurrency} clients in a closed loop for {@link #LEVEL_DURATION} and returns the
+	 * p99 latency in milliseconds. Failed requests count as exceeding the target.
+	 */
+	private long runLevel(HttpClient client, ExecutorService clients, List<HttpRequest> requests, int concurrency)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + LEVEL_DURATION.toNanos();
+		List<List<Long>> latencies = new ArrayList<>();
+
+		List<Future<?>> running = new ArrayList<>();
+		for (int i = 0; i < concurrency; i++) {
+			List<Long> own = new ArrayList<>();
+			latencies.add(own);
+			int first = i;
+			running.add(clients.submit(() -> {
+				int next = first;
+				while (System.nanoTime() < deadline) {
+					HttpRequest request = requests.get(next++ % requests.size());
+					long start = System.nanoTime();
+					try {
+						HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						own.add(response.statusCode() == 200 ? System.nanoTime() - start : Long.MAX_VALUE);
+					} catch (IOException ex) {
+						own.add(Long.MAX_VALUE);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}));
+		}
+		for (Future<?> future : running) {
+			try {
+				future.get();
+			} catch (ExecutionException ex) {
+				throw new IllegalStateException(ex.getCause());
+			}
+		}
+
+		List<Long> all = new ArrayList<>();
+		latencies.forEach(all::addAll);
+		if (all.isEmpty()) {
+			return Long.MAX_VALUE;
+		}
+		Collections.sort(all);
+		long p99 = all.get((int) Math.ceil(all.size() * 0.99) - 1);
+		return p99 == Long.MAX_VALUE ? p99 : TimeUnit.NANOSECONDS.toMillis(p99);
+	}
+}
@@ -0,0 +1,35 @@
+package com.warrantyhub.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MVC async requests, including streamed ZIP exports, must run on Boot's application executor,
+ * which only exists while the application defines no Executor bean of its own
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AsyncExecutorContextTest {
+
+	@Autowired
+	@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	private AsyncTaskExecutor applicationTaskExecutor;
+
+	@Autowired
+	private RequestMappingHandlerAdapter requestMappingHandlerAdapter;
+
+	@Test
+	void mvcAsyncUsesApplicationTaskExecutor() {
+		assertThat(ReflectionTestUtils.getField(requestMappingHandlerAdapter, "taskExecutor"))
+				.isSameAs(applicationTaskExecutor);
+	}
+}
@@ -0,0 +1,78 @@
+package com.warrantyhub.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two embedded databases stand in for the primary and the replica; each knows which one it is
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+	private ReadReplicaRoutingDataSource routingDataSource;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readOnlyTransaction;
+	private TransactionTemplate readWriteTransaction;
+
+	@BeforeEach
+	void setUp() {
+		routingDataSource = new ReadReplicaRoutingDataSource(database("primary"), database("replica"));
+		routingDataSource.afterPropertiesSet();
+
+		// As in ReadReplicaConfig: the proxy defers picking a pool until the read-only flag is set
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		readOnlyTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction.setReadOnly(true);
+		readWriteTransaction = new TransactionTemplate(transactionManager);
+	}
+
+	@Test
+	void routesReadOnlyTransactionsToReplica() {
+		routingDataSource.setReplicaAvailable(true);
+
+		assertThat(currentDatabase(readOnlyTransaction)).isEqualTo("replica");
+		assertThat(currentDatabase(readWriteTransaction)).isEqualTo("primary");
+	}
+
+	@Test
+	void routesEverythingToPrimaryWhileReplicaIsUnavailable() {
+		routingDataSource.setReplicaAvailable(false);
+
+		assertThat(currentDatabase(readOnlyTransaction)).isEqualTo("primary");
+	}
+
+	@Test
+	void routesWorkOutsideTransactionsToPrimary() {
+		routingDataSource.setReplicaAvailable(true);
+
+		assertThat(currentDatabase()).isEqualTo("primary");
+	}
+
+	private String currentDatabase(TransactionTemplate transaction) {
+		return transaction.execute(status -> currentDatabase());
+	}
+
+	private String currentDatabase() {
+		return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+	}
+
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(16))");
+		jdbcTemplate.update("DELETE FROM whoami");
+		jdbcTemplate.update("INSERT INTO whoami (name) VALUES (?)", name);
+		return dataSource;
+	}
+}
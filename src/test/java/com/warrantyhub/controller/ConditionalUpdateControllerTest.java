@@ -0,0 +1,143 @@
+package com.warrantyhub.controller;
+
+import com.warrantyhub.dto.request.DeviceRequest;
+import com.warrantyhub.dto.request.MaintenanceRecordRequest;
+import com.warrantyhub.dto.response.DeviceDTO;
+import com.warrantyhub.dto.response.MaintenanceRecordDTO;
+import com.warrantyhub.exception.GlobalExceptionHandler;
+import com.warrantyhub.exception.PreconditionFailedException;
+import com.warrantyhub.service.DeviceService;
+import com.warrantyhub.service.MaintenanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag and If-Match handling of the device and maintenance record PUT endpoints
+ */
+class ConditionalUpdateControllerTest {
+
+	private static final String DEVICE_JSON = "{\"name\":\"Laptop\"}";
+
+	private DeviceService deviceService;
+	private MaintenanceService maintenanceService;
+	private MockMvc mockMvc;
+	private final Authentication authentication =
+			new UsernamePasswordAuthenticationToken("owner@example.com", null, List.of());
+
+	@BeforeEach
+	void setUp() {
+		deviceService = mock(DeviceService.class);
+		maintenanceService = mock(MaintenanceService.class);
+		mockMvc = MockMvcBuilders
+				.standaloneSetup(new DeviceController(deviceService), new MaintenanceController(maintenanceService))
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void returnsVersionAsETag() throws Exception {
+		when(deviceService.getDeviceById(eq(1L), any())).thenReturn(device(3L));
+
+		mockMvc.perform(get("/api/devices/1").principal(authentication))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+	}
+
+	@Test
+	void passesIfMatchVersionsToUpdate() throws Exception {
+		when(deviceService.updateDevice(eq(1L), any(DeviceRequest.class), any(), any())).thenReturn(device(4L));
+
+		mockMvc.perform(putDevice().header(HttpHeaders.IF_MATCH, "\"2\", W/\"3\", \"3\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+		verify(deviceService).updateDevice(eq(1L), any(DeviceRequest.class), eq(Set.of(2L, 3L)), any());
+	}
+
+	@Test
+	void updatesUnconditionallyWithoutIfMatchOrWithWildcard() throws Exception {
+		when(deviceService.updateDevice(eq(1L), any(DeviceRequest.class), isNull(), any())).thenReturn(device(4L));
+
+		mockMvc.perform(putDevice()).andExpect(status().isOk());
+		mockMvc.perform(putDevice().header(HttpHeaders.IF_MATCH, "*")).andExpect(status().isOk());
+	}
+
+	@Test
+	void answersStaleIfMatchWith412() throws Exception {
+		when(deviceService.updateDevice(eq(1L), any(DeviceRequest.class), any(), any()))
+				.thenThrow(new PreconditionFailedException("Device is no longer at the version given in If-Match"));
+
+		mockMvc.perform(putDevice().header(HttpHeaders.IF_MATCH, "\"2\""))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(putDevice().header(HttpHeaders.IF_MATCH, "W/\"2\""))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void rejectsMalformedIfMatch() throws Exception {
+		mockMvc.perform(putDevice().header(HttpHeaders.IF_MATCH, "2"))
+				.andExpect(status().isBadRequest());
+
+		verify(deviceService, never()).updateDevice(any(), any(), any(), any());
+	}
+
+	@Test
+	void returnsMaintenanceRecordVersionAsETag() throws Exception {
+		DeviceDTO device = device(7L);
+		device.setMaintenanceHistory(List.of(record(4L, 1L), record(5L, 9L)));
+		when(maintenanceService.updateMaintenanceRecord(eq(1L), eq(5L), any(MaintenanceRecordRequest.class),
+				eq(Set.of(8L)), any())).thenReturn(device);
+
+		mockMvc.perform(put("/api/devices/1/maintenance/5")
+						.principal(authentication)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"date\":\"2024-05-01\",\"type\":\"Repair\"}")
+						.header(HttpHeaders.IF_MATCH, "\"8\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"9\""));
+	}
+
+	private MockHttpServletRequestBuilder putDevice() {
+		return put("/api/devices/1")
+				.principal(authentication)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(DEVICE_JSON);
+	}
+
+	private static DeviceDTO device(Long version) {
+		DeviceDTO device = new DeviceDTO();
+		device.setId("1");
+		device.setName("Laptop");
+		device.setVersion(version);
+		return device;
+	}
+
+	private static MaintenanceRecordDTO record(Long id, Long version) {
+		MaintenanceRecordDTO record = new MaintenanceRecordDTO();
+		record.setId(id.toString());
+		record.setVersion(version);
+		return record;
+	}
+}
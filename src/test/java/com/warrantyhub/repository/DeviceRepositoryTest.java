@@ -0,0 +1,64 @@
+package com.warrantyhub.repository;
+
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The serial number key must hold for devices without a manufacturer too.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class DeviceRepositoryTest {
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = new User();
+		user.setName("Owner");
+		user.setEmail("owner@example.com");
+		user.setEnabled(true);
+		user = userRepository.saveAndFlush(user);
+	}
+
+	@Test
+	void rejectsSameSerialWithoutManufacturer() {
+		deviceRepository.saveAndFlush(device(null));
+
+		assertThatThrownBy(() -> deviceRepository.saveAndFlush(device(null)))
+				.isInstanceOf(DataIntegrityViolationException.class);
+	}
+
+	@Test
+	void allowsSameSerialForDifferentManufacturers() {
+		deviceRepository.saveAndFlush(device(null));
+		deviceRepository.saveAndFlush(device("Acme"));
+
+		assertThatCode(() -> deviceRepository.saveAndFlush(device("Globex"))).doesNotThrowAnyException();
+	}
+
+	private Device device(String manufacturer) {
+		Device device = new Device();
+		device.setName("Device");
+		device.setManufacturer(manufacturer);
+		device.setSerialNumber("SN-123");
+		device.setWarrantyStatus("unknown");
+		device.setUser(user);
+		return device;
+	}
+}
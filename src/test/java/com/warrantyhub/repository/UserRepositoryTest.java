@@ -0,0 +1,115 @@
+package com.warrantyhub.repository;
+
+import com.warrantyhub.model.User;
+import com.warrantyhub.security.JwtTokenProvider;
+import com.warrantyhub.security.SharedStateStore;
+import com.warrantyhub.service.EmailService;
+import com.warrantyhub.service.RefreshTokenService;
+import com.warrantyhub.service.impl.AuthServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs with the second-level cache configured as in production (application.properties), which
+ * the test profile otherwise turns off.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+		"spring.jpa.properties.hibernate.cache.region.factory_class=jcache"
+})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryTest {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAllInBatch();
+		entityManagerFactory.getCache().evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void findByEmailIsAnsweredFromTheCache() {
+		User saved = userRepository.save(user("owner@example.com", null));
+		entityManagerFactory.getCache().evictAll();
+
+		assertThat(userRepository.findByEmail("owner@example.com")).isPresent();
+		statistics.clear();
+
+		assertThat(userRepository.findByEmail("owner@example.com"))
+				.hasValueSatisfying(found -> assertThat(found.getId()).isEqualTo(saved.getId()));
+		assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(1);
+		assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void clearingExpiredResetTokensKeepsOtherUsersCached() {
+		Instant now = Instant.now();
+		userRepository.save(user("expired@example.com", now.minus(1, ChronoUnit.HOURS)));
+		userRepository.save(user("pending@example.com", now.plus(1, ChronoUnit.HOURS)));
+		userRepository.findByEmail("expired@example.com");
+		userRepository.findByEmail("pending@example.com");
+
+		AuthServiceImpl authService = new AuthServiceImpl(userRepository, mock(PasswordEncoder.class),
+				mock(AuthenticationManager.class), mock(JwtTokenProvider.class), mock(RefreshTokenService.class),
+				mock(ModelMapper.class), mock(EmailService.class), mock(SharedStateStore.class));
+		Integer cleared = new TransactionTemplate(transactionManager)
+				.execute(status -> authService.clearExpiredResetTokens(10));
+		assertThat(cleared).isEqualTo(1);
+		statistics.clear();
+
+		assertThat(userRepository.findByEmail("pending@example.com"))
+				.hasValueSatisfying(found -> assertThat(found.getResetPasswordToken()).isNotNull());
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+
+		assertThat(userRepository.findByEmail("expired@example.com"))
+				.hasValueSatisfying(found -> {
+					assertThat(found.getResetPasswordToken()).isNull();
+					assertThat(found.getResetPasswordTokenExpiry()).isNull();
+				});
+	}
+
+	private User user(String email, Instant resetTokenExpiry) {
+		User user = new User();
+		user.setName("Owner");
+		user.setEmail(email);
+		user.setEnabled(true);
+		if (resetTokenExpiry != null) {
+			user.setResetPasswordToken(email + "-token");
+			user.setResetPasswordTokenExpiry(resetTokenExpiry);
+		}
+		return user;
+	}
+}
@@ -0,0 +1,181 @@
+package com.warrantyhub.scheduler;
+
+import com.warrantyhub.config.FileStorageConfig;
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.Document;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.repository.DocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DocumentReconciliationJobTest {
+
+	@Autowired
+	private DocumentRepository documentRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@TempDir
+	private Path uploadDir;
+
+	private SimpleMeterRegistry meterRegistry;
+	private DocumentReconciliationJob job;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = inTransaction(() -> {
+			entityManager.createQuery("delete from Document").executeUpdate();
+			entityManager.createQuery("delete from Device").executeUpdate();
+			entityManager.createQuery("delete from User").executeUpdate();
+			User owner = new User();
+			owner.setName("Owner");
+			owner.setEmail("owner@example.com");
+			owner.setEnabled(true);
+			entityManager.persist(owner);
+			return owner;
+		});
+
+		FileStorageConfig fileStorageConfig = mock(FileStorageConfig.class);
+		when(fileStorageConfig.getUploadDir()).thenReturn(uploadDir.toString());
+		meterRegistry = new SimpleMeterRegistry();
+		job = new DocumentReconciliationJob(documentRepository, deviceRepository, fileStorageConfig, meterRegistry);
+		ReflectionTestUtils.setField(job, "graceMinutes", 0L);
+	}
+
+	@Test
+	void recountsOnlyDevicesWhoseCounterDrifted() throws IOException {
+		Long accurate = device(1, "accurate").getId();
+		Long undercounted = device(0, "undercounted-1", "undercounted-2").getId();
+		Long overcounted = device(3).getId();
+
+		job.reconcile();
+
+		assertThat(documentCount(accurate)).isEqualTo(1);
+		assertThat(documentCount(undercounted)).isEqualTo(2);
+		assertThat(documentCount(overcounted)).isZero();
+		assertThat(gauge("recounted")).isEqualTo(2);
+	}
+
+	@Test
+	void quarantinesOrphansAndReportsDanglingRows() throws IOException {
+		device(2, "matched", "dangling");
+		Files.delete(uploadDir.resolve(storedFileName("dangling")));
+		Files.writeString(uploadDir.resolve(storedFileName("orphan")), "orphan");
+		// Not named like stored files, so its place in the order is confirmed by a lookup
+		Files.writeString(uploadDir.resolve("Notes.TXT"), "notes");
+
+		job.reconcile();
+
+		assertThat(gauge("matched")).isEqualTo(1);
+		assertThat(gauge("dangling")).isEqualTo(1);
+		assertThat(gauge("orphaned")).isEqualTo(2);
+		assertThat(gauge("quarantined")).isEqualTo(2);
+		assertThat(uploadDir.resolve(storedFileName("matched"))).exists();
+		assertThat(uploadDir.resolve(".quarantine").resolve(storedFileName("orphan"))).exists();
+		assertThat(uploadDir.resolve(".quarantine").resolve("Notes.TXT")).exists();
+	}
+
+	@Test
+	void sortsDirectoryListingAcrossSpilledRuns() throws IOException {
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			String name = storedFileName("file-" + i);
+			Files.writeString(uploadDir.resolve(name), name);
+			expected.add(name);
+		}
+		Files.createDirectory(uploadDir.resolve("partial"));
+		Collections.sort(expected);
+
+		List<String> names = new ArrayList<>();
+		try (DocumentReconciliationJob.SortedFileNames files = DocumentReconciliationJob.SortedFileNames.of(uploadDir, 3)) {
+			for (String name = files.next(); name != null; name = files.next()) {
+				names.add(name);
+			}
+		}
+
+		assertThat(names).isEqualTo(expected);
+	}
+
+	private Device device(int documentCount, String... documents) throws IOException {
+		Device device = inTransaction(() -> {
+			Device created = new Device();
+			created.setName("Device");
+			created.setWarrantyStatus("unknown");
+			created.setUser(entityManager.getReference(User.class, user.getId()));
+			created.setDocumentCount(documentCount);
+			entityManager.persist(created);
+			for (String name : documents) {
+				entityManager.persist(document(created, storedFileName(name)));
+			}
+			return created;
+		});
+		for (String name : documents) {
+			Files.writeString(uploadDir.resolve(storedFileName(name)), name);
+		}
+		return device;
+	}
+
+	private static Document document(Device device, String storedFileName) {
+		Document document = new Document();
+		document.setName(storedFileName);
+		document.setFilePath(storedFileName);
+		document.setFileUrl("/api/documents/" + storedFileName);
+		document.setStoredFileName(storedFileName);
+		document.setUploadDate(LocalDate.now());
+		document.setDevice(device);
+		return document;
+	}
+
+	private static String storedFileName(String name) {
+		return UUID.nameUUIDFromBytes(name.getBytes()) + ".pdf";
+	}
+
+	private int documentCount(Long deviceId) {
+		return deviceRepository.findById(deviceId).orElseThrow().getDocumentCount();
+	}
+
+	private double gauge(String name) {
+		return meterRegistry.get("warrantyhub.documents.reconciliation." + name).gauge().value();
+	}
+
+	private <T> T inTransaction(Supplier<T> work) {
+		return new TransactionTemplate(transactionManager).execute(status -> work.get());
+	}
+}
@@ -0,0 +1,118 @@
+package com.warrantyhub.scheduler;
+
+import com.warrantyhub.config.ReadReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaLagMonitorTest {
+
+	private ReadReplicaRoutingDataSource routingDataSource;
+	private DataSource replicaDataSource;
+	private ResultSet replicaStatus;
+	private SimpleMeterRegistry meterRegistry;
+	private ReplicaLagMonitor monitor;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		routingDataSource = new ReadReplicaRoutingDataSource(mock(DataSource.class), mock(DataSource.class));
+		replicaDataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		Statement statement = mock(Statement.class);
+		replicaStatus = mock(ResultSet.class);
+		when(replicaDataSource.getConnection()).thenReturn(connection);
+		when(connection.createStatement()).thenReturn(statement);
+		when(statement.executeQuery(anyString())).thenReturn(replicaStatus);
+
+		meterRegistry = new SimpleMeterRegistry();
+		monitor = new ReplicaLagMonitor(routingDataSource, replicaDataSource, meterRegistry);
+		ReflectionTestUtils.setField(monitor, "maxLagSeconds", 2L);
+	}
+
+	@Test
+	void usesReplicaWhileLagIsWithinLimit() throws SQLException {
+		replicaLag(2L);
+
+		monitor.checkLag();
+
+		assertThat(routingDataSource.isReplicaAvailable()).isTrue();
+		assertThat(gauge("warrantyhub.datasource.replica.lag")).isEqualTo(2.0);
+		assertThat(gauge("warrantyhub.datasource.replica.available")).isEqualTo(1.0);
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenReplicaLags() throws SQLException {
+		routingDataSource.setReplicaAvailable(true);
+		replicaLag(3L);
+
+		monitor.checkLag();
+
+		assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+		assertThat(gauge("warrantyhub.datasource.replica.lag")).isEqualTo(3.0);
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenReplicationIsStopped() throws SQLException {
+		routingDataSource.setReplicaAvailable(true);
+		replicaLag(null);
+
+		monitor.checkLag();
+
+		assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+		assertThat(gauge("warrantyhub.datasource.replica.lag")).isEqualTo(-1.0);
+	}
+
+	@Test
+	void treatsServerThatIsNotReplicatingAsUnavailable() throws SQLException {
+		routingDataSource.setReplicaAvailable(true);
+		when(replicaStatus.next()).thenReturn(false);
+
+		monitor.checkLag();
+
+		assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+	}
+
+	@Test
+	void acceptsServerThatIsNotReplicatingWhenAllowed() throws SQLException {
+		ReflectionTestUtils.setField(monitor, "allowNonReplicating", true);
+		when(replicaStatus.next()).thenReturn(false);
+
+		monitor.checkLag();
+
+		assertThat(routingDataSource.isReplicaAvailable()).isTrue();
+		assertThat(gauge("warrantyhub.datasource.replica.lag")).isZero();
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenReplicaIsUnreachable() throws SQLException {
+		routingDataSource.setReplicaAvailable(true);
+		when(replicaDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+		monitor.checkLag();
+
+		assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+		assertThat(gauge("warrantyhub.datasource.replica.lag")).isEqualTo(-1.0);
+	}
+
+	private void replicaLag(Long seconds) throws SQLException {
+		when(replicaStatus.next()).thenReturn(true, false);
+		when(replicaStatus.getLong("Seconds_Behind_Source")).thenReturn(seconds == null ? 0L : seconds);
+		when(replicaStatus.wasNull()).thenReturn(seconds == null);
+	}
+
+	private double gauge(String name) {
+		return meterRegistry.get(name).gauge().value();
+	}
+}
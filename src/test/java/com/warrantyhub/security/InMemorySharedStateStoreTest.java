@@ -0,0 +1,93 @@
+package com.warrantyhub.security;
+
+import com.warrantyhub.security.SharedStateStore.BucketLimit;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemorySharedStateStoreTest {
+
+	@Test
+	void returnsWaitOnceCapacityIsUsed() {
+		InMemorySharedStateStore store = new InMemorySharedStateStore(4, 1000);
+		List<BucketLimit> limit = List.of(new BucketLimit("ip:10.0.0.1", 3, 60));
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(store.tryConsume(limit)).isZero();
+		}
+
+		// One token comes back every 20 seconds
+		assertThat(store.tryConsume(limit)).isBetween(19L, 20L);
+		assertThat(store.tryConsume(List.of(new BucketLimit("ip:10.0.0.2", 3, 60)))).isZero();
+	}
+
+	@Test
+	void refillsOverTime() throws InterruptedException {
+		InMemorySharedStateStore store = new InMemorySharedStateStore(4, 1000);
+		// One token every 50 ms
+		List<BucketLimit> limit = List.of(new BucketLimit("ip:10.0.0.1", 20, 1));
+
+		for (int i = 0; i < 20; i++) {
+			assertThat(store.tryConsume(limit)).isZero();
+		}
+		assertThat(store.tryConsume(limit)).isPositive();
+
+		Thread.sleep(150);
+
+		assertThat(store.tryConsume(limit)).isZero();
+	}
+
+	@Test
+	void returnsLongestWaitAcrossLimits() {
+		InMemorySharedStateStore store = new InMemorySharedStateStore(4, 1000);
+		BucketLimit perIp = new BucketLimit("ip:10.0.0.1", 10, 60);
+		BucketLimit perEmail = new BucketLimit("email:user@example.com", 1, 900);
+
+		assertThat(store.tryConsume(List.of(perIp, perEmail))).isZero();
+
+		assertThat(store.tryConsume(List.of(perIp, perEmail))).isBetween(899L, 900L);
+		assertThat(store.tryConsume(List.of(perIp))).isZero();
+	}
+
+	@Test
+	void cyclingThroughKeysDoesNotResetExhaustedBucket() {
+		// A single stripe tracking 16 buckets
+		InMemorySharedStateStore store = new InMemorySharedStateStore(1, 16);
+		List<BucketLimit> target = List.of(new BucketLimit("email:victim@example.com", 1, 3600));
+		assertThat(store.tryConsume(target)).isZero();
+
+		for (int i = 0; i < 100; i++) {
+			store.tryConsume(List.of(new BucketLimit("email:user" + i + "@example.com", 1, 3600)));
+		}
+
+		assertThat(store.tryConsume(target)).isPositive();
+	}
+
+	@Test
+	void newKeysShareOverflowBucketWhenStripeIsFull() {
+		InMemorySharedStateStore store = new InMemorySharedStateStore(1, 16);
+		for (int i = 0; i < 16; i++) {
+			assertThat(store.tryConsume(List.of(new BucketLimit("email:user" + i + "@example.com", 1, 3600)))).isZero();
+		}
+
+		assertThat(store.tryConsume(List.of(new BucketLimit("email:new1@example.com", 1, 3600)))).isZero();
+		assertThat(store.tryConsume(List.of(new BucketLimit("email:new2@example.com", 1, 3600)))).isPositive();
+		// Limits of another shape get their own overflow bucket
+		assertThat(store.tryConsume(List.of(new BucketLimit("ip:10.0.0.1", 5, 60)))).isZero();
+	}
+
+	@Test
+	void deniesTokenUntilItExpires() {
+		InMemorySharedStateStore store = new InMemorySharedStateStore(4, 1000);
+
+		store.denyToken("active", Instant.now().plusSeconds(60));
+		store.denyToken("expired", Instant.now().minusSeconds(1));
+
+		assertThat(store.isTokenDenied("active")).isTrue();
+		assertThat(store.isTokenDenied("expired")).isFalse();
+		assertThat(store.isTokenDenied("unknown")).isFalse();
+	}
+}
@@ -0,0 +1,75 @@
+package com.warrantyhub.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		filter = new RateLimitFilter(new InMemorySharedStateStore(1, 1000), new ObjectMapper());
+		ReflectionTestUtils.setField(filter, "ipCapacity", 100);
+		ReflectionTestUtils.setField(filter, "ipRefillSeconds", 60L);
+		ReflectionTestUtils.setField(filter, "emailCapacity", 2);
+		ReflectionTestUtils.setField(filter, "emailRefillSeconds", 60L);
+	}
+
+	@Test
+	void passesBodyOnToTheEndpoint() throws Exception {
+		String body = "{\"email\":\"owner@example.com\",\"password\":\"secret\"}";
+		MockFilterChain chain = new MockFilterChain();
+
+		MockHttpServletResponse response = send("/api/auth/login", body, chain);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		byte[] forwarded = chain.getRequest().getInputStream().readAllBytes();
+		assertThat(new String(forwarded, StandardCharsets.UTF_8)).isEqualTo(body);
+	}
+
+	@Test
+	void limitsEmailAcrossEndpoints() throws Exception {
+		send("/api/auth/login", "{\"email\":\"owner@example.com\"}", new MockFilterChain());
+		send("/api/auth/forgot-password", "{\"email\":\" Owner@Example.com \"}", new MockFilterChain());
+		MockFilterChain chain = new MockFilterChain();
+
+		MockHttpServletResponse response = send("/api/auth/register", "{\"email\":\"OWNER@example.com\"}", chain);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isNotNull();
+		assertThat(chain.getRequest()).isNull();
+	}
+
+	@Test
+	void rejectsPaddedBodyInsteadOfSkippingTheEmailLimit() throws Exception {
+		String padded = "{\"email\":\"owner@example.com\"," + " ".repeat(9 * 1024) + "\"password\":\"guess\"}";
+		MockFilterChain chain = new MockFilterChain();
+
+		MockHttpServletResponse response = send("/api/auth/login", padded, chain);
+
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE.value());
+		assertThat(chain.getRequest()).isNull();
+	}
+
+	private MockHttpServletResponse send(String path, String body, MockFilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+		request.setServletPath(path);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+}
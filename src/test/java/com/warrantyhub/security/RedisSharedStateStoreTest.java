@@ -0,0 +1,159 @@
+package com.warrantyhub.security;
+
+import com.warrantyhub.security.SharedStateStore.BucketLimit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two store instances against one embedded Redis server stand in for two API nodes
+ */
+class RedisSharedStateStoreTest {
+
+	private static RedisServer redisServer;
+	private static int redisPort;
+
+	private LettuceConnectionFactory connectionFactory;
+	private StringRedisTemplate redisTemplate;
+
+	@BeforeAll
+	static void startRedis() throws IOException {
+		redisPort = freePort();
+		redisServer = new RedisServer(redisPort);
+		redisServer.start();
+	}
+
+	@AfterAll
+	static void stopRedis() throws IOException {
+		redisServer.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		connectionFactory = connectionFactory(redisPort);
+		redisTemplate = new StringRedisTemplate(connectionFactory);
+		redisTemplate.execute((RedisCallback<Object>) connection -> {
+			connection.serverCommands().flushAll();
+			return null;
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		connectionFactory.destroy();
+	}
+
+	@Test
+	void bucketIsSharedByAllNodes() {
+		RedisSharedStateStore nodeA = store(redisTemplate, 0);
+		RedisSharedStateStore nodeB = store(redisTemplate, 0);
+		List<BucketLimit> limit = List.of(new BucketLimit("ip:10.0.0.1", 2, 60));
+
+		assertThat(nodeA.tryConsume(limit)).isZero();
+		assertThat(nodeB.tryConsume(limit)).isZero();
+
+		// One token comes back every 30 seconds
+		assertThat(nodeA.tryConsume(limit)).isBetween(29L, 30L);
+		assertThat(nodeB.tryConsume(limit)).isBetween(29L, 30L);
+	}
+
+	@Test
+	void returnsLongestWaitAcrossLimits() {
+		RedisSharedStateStore store = store(redisTemplate, 0);
+		BucketLimit perIp = new BucketLimit("ip:10.0.0.1", 10, 60);
+		BucketLimit perEmail = new BucketLimit("email:user@example.com", 1, 900);
+
+		assertThat(store.tryConsume(List.of(perIp, perEmail))).isZero();
+
+		assertThat(store.tryConsume(List.of(perIp, perEmail))).isBetween(899L, 900L);
+		assertThat(store.tryConsume(List.of(perIp))).isZero();
+	}
+
+	@Test
+	void deniedTokenIsRejectedByOtherNodes() {
+		RedisSharedStateStore nodeA = store(redisTemplate, 0);
+		RedisSharedStateStore nodeB = store(redisTemplate, 0);
+
+		nodeA.denyToken("token-1", Instant.now().plusSeconds(60));
+
+		assertThat(nodeB.isTokenDenied("token-1")).isTrue();
+		assertThat(nodeB.isTokenDenied("token-2")).isFalse();
+		assertThat(redisTemplate.getExpire("test:deny:token-1")).isBetween(1L, 60L);
+	}
+
+	@Test
+	void notDeniedAnswerIsCachedForNegativeCacheWindow() {
+		RedisSharedStateStore nodeA = store(redisTemplate, 0);
+		RedisSharedStateStore nodeB = store(redisTemplate, 60_000);
+
+		assertThat(nodeB.isTokenDenied("token-1")).isFalse();
+		nodeA.denyToken("token-1", Instant.now().plusSeconds(60));
+
+		assertThat(nodeB.isTokenDenied("token-1")).isFalse();
+		assertThat(store(redisTemplate, 60_000).isTokenDenied("token-1")).isTrue();
+	}
+
+	@Test
+	void ignoresTokensThatAlreadyExpired() {
+		RedisSharedStateStore store = store(redisTemplate, 0);
+
+		store.denyToken("token-1", Instant.now().minusSeconds(1));
+
+		assertThat(store.isTokenDenied("token-1")).isFalse();
+		assertThat(redisTemplate.hasKey("test:deny:token-1")).isFalse();
+	}
+
+	@Test
+	void failsOpenWhenRedisIsUnreachable() throws IOException {
+		LettuceConnectionFactory unreachable = connectionFactory(freePort());
+		try {
+			RedisSharedStateStore store = store(new StringRedisTemplate(unreachable), 0);
+
+			assertThat(store.tryConsume(List.of(new BucketLimit("ip:10.0.0.1", 1, 60)))).isZero();
+			assertThat(store.isTokenDenied("token-2")).isFalse();
+
+			// Revocation still holds on the node that logged the token out
+			store.denyToken("token-1", Instant.now().plusSeconds(60));
+			assertThat(store.isTokenDenied("token-1")).isTrue();
+		} finally {
+			unreachable.destroy();
+		}
+	}
+
+	private static RedisSharedStateStore store(StringRedisTemplate redisTemplate, long negativeCacheMs) {
+		return new RedisSharedStateStore(redisTemplate, "test:", 100, negativeCacheMs);
+	}
+
+	private static LettuceConnectionFactory connectionFactory(int port) {
+		LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+				.commandTimeout(Duration.ofMillis(500))
+				.build();
+		LettuceConnectionFactory factory = new LettuceConnectionFactory(
+				new RedisStandaloneConfiguration("localhost", port), clientConfiguration);
+		factory.afterPropertiesSet();
+		factory.start();
+		return factory;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
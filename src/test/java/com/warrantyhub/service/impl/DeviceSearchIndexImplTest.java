@@ -0,0 +1,168 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.service.DeviceSearchIndex.Hit;
+import com.warrantyhub.service.DeviceSearchIndex.SearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeviceSearchIndexImplTest {
+
+	private DeviceRepository deviceRepository;
+	private DeviceSearchIndexImpl searchIndex;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		deviceRepository = mock(DeviceRepository.class);
+		searchIndex = new DeviceSearchIndexImpl(deviceRepository, mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry(), 100);
+		ReflectionTestUtils.setField(searchIndex, "ttlSeconds", 3600L);
+		user = new User();
+		user.setId(1L);
+	}
+
+	@Test
+	void ranksExactMatchesAbovePrefixAndInfixMatches() {
+		when(deviceRepository.findByUser(user)).thenReturn(List.of(
+				device(1L, "Notebook", "Acme", "Notabene", null),
+				device(2L, "Tablet", "Acme", null, null),
+				device(3L, "Galaxy Tab", "Samsung", null, null)));
+
+		assertThat(ids(searchIndex.search(user, "tab", 0, 10))).containsExactly(3L, 2L, 1L);
+	}
+
+	@Test
+	void weighsNameAboveManufacturer() {
+		when(deviceRepository.findByUser(user)).thenReturn(List.of(
+				device(1L, "Router", "Apple", null, null),
+				device(2L, "Apple Watch", "Acme", null, null)));
+
+		assertThat(ids(searchIndex.search(user, "apple", 0, 10))).containsExactly(2L, 1L);
+	}
+
+	@Test
+	void requiresEveryQueryTerm() {
+		when(deviceRepository.findByUser(user)).thenReturn(List.of(
+				device(1L, "Galaxy Tab", "Samsung", null, null),
+				device(2L, "Galaxy Phone", "Samsung", null, null)));
+
+		assertThat(ids(searchIndex.search(user, "galaxy tab", 0, 10))).containsExactly(1L);
+		assertThat(ids(searchIndex.search(user, "galaxy watch", 0, 10))).isEmpty();
+		assertThat(ids(searchIndex.search(user, "  ", 0, 10))).isEmpty();
+	}
+
+	@Test
+	void ignoresShortInfixTerms() {
+		when(deviceRepository.findByUser(user)).thenReturn(List.of(device(1L, "Notebook", null, null, null)));
+
+		assertThat(ids(searchIndex.search(user, "ot", 0, 10))).isEmpty();
+		assertThat(ids(searchIndex.search(user, "ebo", 0, 10))).containsExactly(1L);
+	}
+
+	@Test
+	void findsSerialNumbersWithoutSeparators() {
+		when(deviceRepository.findByUser(user)).thenReturn(List.of(device(1L, "Camera", null, null, "AB-12-X")));
+
+		assertThat(ids(searchIndex.search(user, "ab12", 0, 10))).containsExactly(1L);
+		assertThat(ids(searchIndex.search(user, "12", 0, 10))).containsExactly(1L);
+	}
+
+	@Test
+	void pagesThroughHits() {
+		List<Device> devices = new ArrayList<>();
+		for (long id = 1; id <= 5; id++) {
+			devices.add(device(id, "Phone " + id, null, null, null));
+		}
+		when(deviceRepository.findByUser(user)).thenReturn(devices);
+
+		SearchResult page = searchIndex.search(user, "phone", 2, 2);
+
+		assertThat(ids(page)).containsExactly(3L, 4L);
+		assertThat(page.getTotalHits()).isEqualTo(5);
+		assertThat(ids(searchIndex.search(user, "phone", 10, 2))).isEmpty();
+	}
+
+	@Test
+	void appliesChangesToLoadedIndex() {
+		when(deviceRepository.findByUser(user)).thenReturn(List.of(device(1L, "Phone", null, null, null)));
+		assertThat(ids(searchIndex.search(user, "phone", 0, 10))).containsExactly(1L);
+
+		searchIndex.index(device(2L, "Phone Case", null, null, null));
+		searchIndex.index(device(1L, "Tablet", null, null, null));
+
+		assertThat(ids(searchIndex.search(user, "phone", 0, 10))).containsExactly(2L);
+		assertThat(ids(searchIndex.search(user, "tablet", 0, 10))).containsExactly(1L);
+
+		searchIndex.remove(user.getId(), 2L);
+
+		assertThat(ids(searchIndex.search(user, "phone", 0, 10))).isEmpty();
+		verify(deviceRepository, times(1)).findByUser(user);
+	}
+
+	@Test
+	void keepsChangesMadeWhileIndexIsLoading() {
+		when(deviceRepository.findByUser(user)).thenAnswer(invocation -> {
+			List<Device> snapshot = List.of(device(1L, "Phone", null, null, null), device(2L, "Phone Case", null, null, null));
+			// Committed on this node after the load read its rows
+			searchIndex.index(device(3L, "Phone Charger", null, null, null));
+			searchIndex.remove(user.getId(), 2L);
+			return snapshot;
+		});
+
+		assertThat(ids(searchIndex.search(user, "phone", 0, 10))).containsExactly(1L, 3L);
+	}
+
+	@Test
+	void reloadsAfterTtl() {
+		ReflectionTestUtils.setField(searchIndex, "ttlSeconds", 0L);
+		when(deviceRepository.findByUser(user))
+				.thenReturn(List.of(device(1L, "Phone", null, null, null)))
+				.thenReturn(List.of(device(1L, "Phone", null, null, null), device(2L, "Phone Case", null, null, null)));
+
+		assertThat(ids(searchIndex.search(user, "phone", 0, 10))).containsExactly(1L);
+		assertThat(ids(searchIndex.search(user, "phone", 0, 10))).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void retriesLoadAfterFailure() {
+		when(deviceRepository.findByUser(user))
+				.thenThrow(new QueryTimeoutException("timeout"))
+				.thenReturn(List.of(device(1L, "Phone", null, null, null)));
+
+		assertThatThrownBy(() -> searchIndex.search(user, "phone", 0, 10)).isInstanceOf(QueryTimeoutException.class);
+		assertThat(ids(searchIndex.search(user, "phone", 0, 10))).containsExactly(1L);
+	}
+
+	private Device device(Long id, String name, String manufacturer, String model, String serialNumber) {
+		Device device = new Device();
+		device.setId(id);
+		device.setName(name);
+		device.setManufacturer(manufacturer);
+		device.setModel(model);
+		device.setSerialNumber(serialNumber);
+		device.setWarrantyStatus("ACTIVE");
+		device.setUser(user);
+		return device;
+	}
+
+	private static List<Long> ids(SearchResult result) {
+		return result.getHits().stream().map(Hit::getId).toList();
+	}
+}
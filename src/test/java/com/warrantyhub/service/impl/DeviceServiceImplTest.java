@@ -0,0 +1,171 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.dto.request.DeviceRequest;
+import com.warrantyhub.dto.response.DeviceDTO;
+import com.warrantyhub.exception.BadRequestException;
+import com.warrantyhub.exception.PreconditionFailedException;
+import com.warrantyhub.exception.ResourceNotFoundException;
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.repository.UserRepository;
+import com.warrantyhub.service.DeviceSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeviceServiceImplTest {
+
+	private DeviceRepository deviceRepository;
+	private DeviceServiceImpl deviceService;
+	private User user;
+	private Authentication authentication;
+
+	@BeforeEach
+	void setUp() {
+		deviceRepository = mock(DeviceRepository.class);
+		UserRepository userRepository = mock(UserRepository.class);
+		deviceService = new DeviceServiceImpl(deviceRepository, userRepository, new ModelMapper(),
+				mock(DeviceSearchIndex.class), 100, 300, 1000);
+
+		user = new User();
+		user.setId(1L);
+		user.setEmail("owner@example.com");
+		when(userRepository.findByEmail("owner@example.com")).thenReturn(Optional.of(user));
+		authentication = new UsernamePasswordAuthenticationToken("owner@example.com", null, List.of());
+
+		when(deviceRepository.save(any(Device.class))).thenAnswer(invocation -> {
+			Device device = invocation.getArgument(0);
+			device.setId(100L);
+			return device;
+		});
+		when(deviceRepository.saveAndFlush(any(Device.class))).thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@Test
+	void looksUpByNormalizedSerialAndFiltersByManufacturer() {
+		when(deviceRepository.findByUserIdAndSerialNumberNormalized(1L, "AB123X")).thenReturn(List.of(
+				device(10L, "ab-123-x", "Acme"), device(11L, "AB123X", "Globex")));
+
+		assertThat(deviceService.lookupBySerialNumber("ab 123 x", null, authentication).getDevices())
+				.extracting(DeviceDTO::getId).containsExactly("10", "11");
+		assertThat(deviceService.lookupBySerialNumber("AB123X", " globex ", authentication).getDevices())
+				.extracting(DeviceDTO::getId).containsExactly("11");
+		assertThatThrownBy(() -> deviceService.lookupBySerialNumber("AB123X", "Initech", authentication))
+				.isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void rejectsSerialWithoutLettersOrDigits() {
+		assertThatThrownBy(() -> deviceService.lookupBySerialNumber(" - ", null, authentication))
+				.isInstanceOf(BadRequestException.class);
+	}
+
+	@Test
+	void cachesMissesUntilDeviceIsRegistered() {
+		when(deviceRepository.findByUserIdAndSerialNumberNormalized(1L, "AB123X")).thenReturn(List.of());
+
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(() -> deviceService.lookupBySerialNumber("AB-123-X", null, authentication))
+					.isInstanceOf(ResourceNotFoundException.class);
+		}
+		verify(deviceRepository, times(1)).findByUserIdAndSerialNumberNormalized(1L, "AB123X");
+
+		deviceService.createDevice(request("AB123X", "Acme"), authentication);
+		when(deviceRepository.findByUserIdAndSerialNumberNormalized(1L, "AB123X"))
+				.thenReturn(List.of(device(10L, "AB123X", "Acme")));
+
+		assertThat(deviceService.lookupBySerialNumber("AB-123-X", null, authentication).getDevices()).hasSize(1);
+	}
+
+	@Test
+	void rejectsSerialAlreadyRegisteredForManufacturer() {
+		when(deviceRepository.findFirstByUserIdAndSerialNumberNormalizedAndManufacturer(1L, "AB123X", "Acme"))
+				.thenReturn(Optional.of(device(10L, "AB-123-X", "Acme")));
+
+		assertThatThrownBy(() -> deviceService.createDevice(request("ab 123 x", "Acme"), authentication))
+				.isInstanceOf(BadRequestException.class);
+		verify(deviceRepository, never()).save(any(Device.class));
+	}
+
+	@Test
+	void keepsKeylessDuplicateEditableWhileSerialIsUnchanged() {
+		// Registered before serials were unique; its lookup key was cleared by the migration
+		Device duplicate = device(10L, "AB-123-X", "Acme");
+		duplicate.setSerialNumberNormalized(null);
+		when(deviceRepository.findById(10L)).thenReturn(Optional.of(duplicate));
+
+		deviceService.updateDevice(10L, request("ab 123 x", "Acme"), null, authentication);
+
+		assertThat(duplicate.getSerialNumber()).isEqualTo("ab 123 x");
+		assertThat(duplicate.getSerialNumberNormalized()).isNull();
+		verify(deviceRepository, never()).findFirstByUserIdAndSerialNumberNormalizedAndManufacturer(anyLong(), anyString(), any());
+	}
+
+	@Test
+	void checksSerialWhenUpdateChangesIt() {
+		Device device = device(10L, "AB-123-X", "Acme");
+		when(deviceRepository.findById(10L)).thenReturn(Optional.of(device));
+		when(deviceRepository.findFirstByUserIdAndSerialNumberNormalizedAndManufacturer(1L, "CD456", "Acme"))
+				.thenReturn(Optional.of(device(11L, "CD-456", "Acme")));
+
+		assertThatThrownBy(() -> deviceService.updateDevice(10L, request("CD-456", "Acme"), null, authentication))
+				.isInstanceOf(BadRequestException.class);
+
+		deviceService.updateDevice(10L, request("EF-789", "Acme"), null, authentication);
+		assertThat(device.getSerialNumberNormalized()).isEqualTo("EF789");
+	}
+
+	@Test
+	void updatesOnlyWhenCurrentVersionIsListedInIfMatch() {
+		Device device = device(10L, "AB-123-X", "Acme");
+		device.setVersion(3L);
+		when(deviceRepository.findById(10L)).thenReturn(Optional.of(device));
+
+		assertThatThrownBy(() -> deviceService.updateDevice(10L, request("AB-123-X", "Acme"), Set.of(2L), authentication))
+				.isInstanceOf(PreconditionFailedException.class);
+		assertThatThrownBy(() -> deviceService.updateDevice(10L, request("AB-123-X", "Acme"), Set.of(), authentication))
+				.isInstanceOf(PreconditionFailedException.class);
+		verify(deviceRepository, never()).saveAndFlush(any(Device.class));
+
+		deviceService.updateDevice(10L, request("AB-123-X", "Acme"), Set.of(2L, 3L), authentication);
+		verify(deviceRepository).saveAndFlush(device);
+	}
+
+	private Device device(Long id, String serialNumber, String manufacturer) {
+		Device device = new Device();
+		device.setId(id);
+		device.setName("Device " + id);
+		device.setSerialNumber(serialNumber);
+		device.setManufacturer(manufacturer);
+		device.setWarrantyStatus("unknown");
+		device.setUser(user);
+		device.setVersion(0L);
+		return device;
+	}
+
+	private static DeviceRequest request(String serialNumber, String manufacturer) {
+		DeviceRequest request = new DeviceRequest();
+		request.setName("Laptop");
+		request.setSerialNumber(serialNumber);
+		request.setManufacturer(manufacturer);
+		return request;
+	}
+}
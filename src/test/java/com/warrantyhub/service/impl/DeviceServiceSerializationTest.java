@@ -0,0 +1,172 @@
+package com.warrantyhub.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.warrantyhub.config.AppConfig;
+import com.warrantyhub.dto.request.DeviceFilterRequest;
+import com.warrantyhub.dto.response.DeviceDTO;
+import com.warrantyhub.dto.response.DeviceListResponse;
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.Document;
+import com.warrantyhub.model.MaintenanceRecord;
+import com.warrantyhub.model.Part;
+import com.warrantyhub.model.User;
+import com.warrantyhub.service.DeviceSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With open-in-view off, whatever a controller serializes must already be loaded when the
+ * service transaction ends. These tests call the read paths outside any test transaction, then
+ * serialize the result and check Hibernate ran no statements and loaded nothing meanwhile.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({DeviceServiceImpl.class, AppConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DeviceServiceSerializationTest {
+
+	@Autowired
+	private DeviceServiceImpl deviceService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@MockBean
+	private DeviceSearchIndex deviceSearchIndex;
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private Statistics statistics;
+	private Long deviceId;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+
+		deviceId = new TransactionTemplate(transactionManager).execute(status -> {
+			entityManager.createQuery("delete from Document").executeUpdate();
+			entityManager.createNativeQuery("delete from maintenance_record_parts").executeUpdate();
+			entityManager.createQuery("delete from MaintenanceRecord").executeUpdate();
+			entityManager.createQuery("delete from Part").executeUpdate();
+			entityManager.createQuery("delete from Device").executeUpdate();
+			entityManager.createQuery("delete from User").executeUpdate();
+
+			User user = new User();
+			user.setName("Owner");
+			user.setEmail("owner@example.com");
+			user.setEnabled(true);
+			entityManager.persist(user);
+
+			Device device = new Device();
+			device.setName("Laptop");
+			device.setManufacturer("Acme");
+			device.setSerialNumber("SN-1");
+			device.setWarrantyStatus("ACTIVE");
+			device.setWarrantyEndDate(LocalDate.now().plusYears(1));
+			device.setPurchasePrice(new BigDecimal("999.00"));
+			device.setUser(user);
+			entityManager.persist(device);
+
+			Part battery = new Part(null, "Battery");
+			entityManager.persist(battery);
+			MaintenanceRecord record = new MaintenanceRecord();
+			record.setDate(LocalDate.now());
+			record.setType("Repair");
+			record.setDevice(device);
+			record.getParts().add(battery);
+			entityManager.persist(record);
+
+			Document document = new Document();
+			document.setName("receipt.pdf");
+			document.setStoredFileName("receipt-stored.pdf");
+			document.setFilePath("/files/receipt-stored.pdf");
+			document.setFileUrl("/api/documents/receipt-stored.pdf");
+			document.setUploadDate(LocalDate.now());
+			document.setDevice(device);
+			entityManager.persist(document);
+			return device.getId();
+		});
+	}
+
+	@Test
+	void deviceDetailsSerializeWithoutLoading() throws Exception {
+		DeviceDTO device = deviceService.getDeviceById(deviceId, owner());
+
+		String json = serializeWithoutDatabaseAccess(device);
+
+		assertThat(json).contains("\"Laptop\"", "\"Battery\"", "\"receipt.pdf\"");
+	}
+
+	@Test
+	void deviceListSerializesWithoutLoading() throws Exception {
+		DeviceListResponse devices = deviceService.getAllDevicesByUser(new DeviceFilterRequest(), owner());
+
+		String json = serializeWithoutDatabaseAccess(devices);
+
+		assertThat(json).contains("\"Laptop\"", "\"Battery\"", "\"receipt.pdf\"");
+	}
+
+	@Test
+	void readOnlyTransactionsSkipFlushAndDirtyChecking() {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+
+		readOnly.executeWithoutResult(status -> {
+			Session session = entityManager.unwrap(Session.class);
+			assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+			assertThat(session.isDefaultReadOnly()).isTrue();
+
+			Device device = entityManager.find(Device.class, deviceId);
+			device.setName("Renamed");
+		});
+
+		String name = new TransactionTemplate(transactionManager).execute(
+				status -> entityManager.find(Device.class, deviceId).getName());
+		assertThat(name).isEqualTo("Laptop");
+	}
+
+	private String serializeWithoutDatabaseAccess(Object dto) throws Exception {
+		statistics.clear();
+
+		String json = objectMapper.writeValueAsString(dto);
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(statistics.getCollectionLoadCount()).isZero();
+		return json;
+	}
+
+	private static Authentication owner() {
+		return new UsernamePasswordAuthenticationToken("owner@example.com", null, List.of());
+	}
+}
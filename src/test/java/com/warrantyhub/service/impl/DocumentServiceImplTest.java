@@ -0,0 +1,97 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.config.FileStorageConfig;
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.Document;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.repository.DocumentRepository;
+import com.warrantyhub.repository.UserRepository;
+import com.warrantyhub.service.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentServiceImplTest {
+
+	@TempDir
+	private Path uploadDir;
+
+	private DocumentRepository documentRepository;
+	private DocumentServiceImpl documentService;
+	private Document document;
+	private Path storedFile;
+	private Authentication authentication;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		documentRepository = mock(DocumentRepository.class);
+		DeviceRepository deviceRepository = mock(DeviceRepository.class);
+		UserRepository userRepository = mock(UserRepository.class);
+		FileStorageConfig fileStorageConfig = mock(FileStorageConfig.class);
+		when(fileStorageConfig.getUploadDir()).thenReturn(uploadDir.toString());
+		documentService = new DocumentServiceImpl(fileStorageConfig, documentRepository, deviceRepository,
+				userRepository, mock(FileStorageService.class));
+
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("owner@example.com");
+		when(userRepository.findByEmail("owner@example.com")).thenReturn(Optional.of(user));
+		authentication = new UsernamePasswordAuthenticationToken("owner@example.com", null, List.of());
+
+		Device device = new Device();
+		device.setId(10L);
+		device.setUser(user);
+		when(deviceRepository.findById(10L)).thenReturn(Optional.of(device));
+
+		storedFile = Files.writeString(uploadDir.resolve("stored.pdf"), "content");
+		document = new Document();
+		document.setId(20L);
+		document.setFilePath(storedFile.toString());
+		document.setDevice(device);
+		when(documentRepository.findById(20L)).thenReturn(Optional.of(document));
+
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	void deletesFileOnlyAfterCommit() {
+		documentService.deleteDocument(10L, 20L, authentication);
+
+		verify(documentRepository).delete(document);
+		assertThat(storedFile).exists();
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertThat(storedFile).doesNotExist();
+	}
+
+	@Test
+	void keepsFileWhenTransactionRollsBack() {
+		documentService.deleteDocument(10L, 20L, authentication);
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		assertThat(storedFile).exists();
+	}
+}
@@ -0,0 +1,240 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.config.FileStorageConfig;
+import com.warrantyhub.dto.request.DocumentUploadInitRequest;
+import com.warrantyhub.dto.response.DocumentUploadDTO;
+import com.warrantyhub.exception.BadRequestException;
+import com.warrantyhub.exception.FileStorageException;
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.Document;
+import com.warrantyhub.model.DocumentUpload;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.repository.DocumentRepository;
+import com.warrantyhub.repository.DocumentUploadRepository;
+import com.warrantyhub.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentUploadServiceImplTest {
+
+	private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	private Path uploadDir;
+
+	private DocumentUploadRepository documentUploadRepository;
+	private DocumentRepository documentRepository;
+	private DeviceRepository deviceRepository;
+	private DocumentUploadServiceImpl uploadService;
+	private Device device;
+	private DocumentUpload upload;
+	private Authentication authentication;
+
+	@BeforeEach
+	void setUp() {
+		documentUploadRepository = mock(DocumentUploadRepository.class);
+		documentRepository = mock(DocumentRepository.class);
+		deviceRepository = mock(DeviceRepository.class);
+		UserRepository userRepository = mock(UserRepository.class);
+		FileStorageConfig fileStorageConfig = mock(FileStorageConfig.class);
+		when(fileStorageConfig.getUploadDir()).thenReturn(uploadDir.toString());
+		uploadService = new DocumentUploadServiceImpl(fileStorageConfig, documentUploadRepository, documentRepository,
+				deviceRepository, userRepository, new FileStorageServiceImpl(new String[]{"text/plain"}, new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(uploadService, "maxFileSize", 1024L);
+		ReflectionTestUtils.setField(uploadService, "expiryHours", 24L);
+
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("owner@example.com");
+		when(userRepository.findByEmail("owner@example.com")).thenReturn(Optional.of(user));
+		authentication = new UsernamePasswordAuthenticationToken("owner@example.com", null, List.of());
+
+		device = new Device();
+		device.setId(10L);
+		device.setUser(user);
+		when(deviceRepository.findById(10L)).thenReturn(Optional.of(device));
+
+		// The repository stands in for the table: one row, advanced only forwards
+		when(documentUploadRepository.saveAndFlush(any(DocumentUpload.class))).thenAnswer(invocation -> {
+			upload = invocation.getArgument(0);
+			upload.setId(30L);
+			return upload;
+		});
+		when(documentUploadRepository.findByUploadId(anyString())).thenAnswer(invocation ->
+				Optional.ofNullable(upload).filter(row -> row.getUploadId().equals(invocation.getArgument(0))));
+		when(documentUploadRepository.advanceReceivedBytes(anyString(), anyLong(), any())).thenAnswer(invocation -> {
+			long end = invocation.getArgument(1);
+			if (upload.getReceivedBytes() >= end) {
+				return 0;
+			}
+			upload.setReceivedBytes(end);
+			return 1;
+		});
+		when(documentRepository.save(any(Document.class))).thenAnswer(invocation -> {
+			Document document = invocation.getArgument(0);
+			document.setId(40L);
+			return document;
+		});
+
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void failedInsertLeavesNoPartialFile() throws IOException {
+		when(documentUploadRepository.saveAndFlush(any(DocumentUpload.class)))
+				.thenThrow(new DataIntegrityViolationException("insert failed"));
+
+		assertThatThrownBy(() -> uploadService.initiateUpload(10L, request(sha256(CONTENT)), authentication))
+				.isInstanceOf(DataIntegrityViolationException.class);
+		assertThat(partialFiles()).isEmpty();
+	}
+
+	@Test
+	void rolledBackInitiateRemovesPartialFile() throws IOException {
+		TransactionSynchronizationManager.initSynchronization();
+		uploadService.initiateUpload(10L, request(sha256(CONTENT)), authentication);
+		assertThat(partialFiles()).hasSize(1);
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		assertThat(partialFiles()).isEmpty();
+	}
+
+	@Test
+	void rejectsChunkThatLeavesAGap() {
+		String uploadId = initiate(sha256(CONTENT));
+		uploadService.uploadChunk(10L, uploadId, 0, chunk(0, 5), authentication);
+
+		assertThatThrownBy(() -> uploadService.uploadChunk(10L, uploadId, 8, chunk(8, 12), authentication))
+				.isInstanceOf(BadRequestException.class)
+				.hasMessageContaining("does not match received bytes 5");
+	}
+
+	@Test
+	void resumesFromReceivedBytesAndAcceptsRetriedChunks() throws IOException {
+		String uploadId = initiate(sha256(CONTENT));
+		uploadService.uploadChunk(10L, uploadId, 0, chunk(0, 8), authentication);
+		// A retried chunk overlapping data already received must not move the offset back
+		DocumentUploadDTO status = uploadService.uploadChunk(10L, uploadId, 4, chunk(4, 8), authentication);
+		assertThat(status.getReceivedBytes()).isEqualTo(8);
+
+		assertThat(uploadService.getUploadStatus(10L, uploadId, authentication).getReceivedBytes()).isEqualTo(8);
+		uploadService.uploadChunk(10L, uploadId, 8, chunk(8, CONTENT.length), authentication);
+		when(deviceRepository.incrementDocumentCount(anyLong(), anyInt())).thenReturn(1);
+
+		uploadService.completeUpload(10L, uploadId, authentication);
+
+		assertThat(Files.readAllBytes(uploadDir.resolve(upload.getStoredFileName()))).isEqualTo(CONTENT);
+		assertThat(partialFiles()).isEmpty();
+		verify(documentUploadRepository).delete(upload);
+	}
+
+	@Test
+	void checksumMismatchDiscardsTheUpload() throws IOException {
+		String uploadId = initiate(sha256("something else".getBytes(StandardCharsets.UTF_8)));
+		uploadService.uploadChunk(10L, uploadId, 0, chunk(0, CONTENT.length), authentication);
+
+		assertThatThrownBy(() -> uploadService.completeUpload(10L, uploadId, authentication))
+				.isInstanceOf(BadRequestException.class)
+				.hasMessageContaining("Checksum mismatch");
+		assertThat(partialFiles()).isEmpty();
+		verify(documentUploadRepository).delete(upload);
+		verify(documentRepository, never()).save(any());
+	}
+
+	@Test
+	void finalizeLosingTheLastSlotKeepsThePartialFile() throws IOException {
+		String uploadId = initiate(sha256(CONTENT));
+		uploadService.uploadChunk(10L, uploadId, 0, chunk(0, CONTENT.length), authentication);
+		// The pre-check passes, but a concurrent upload claims the last slot first
+		when(deviceRepository.incrementDocumentCount(anyLong(), anyInt())).thenReturn(0);
+
+		assertThatThrownBy(() -> uploadService.completeUpload(10L, uploadId, authentication))
+				.isInstanceOf(FileStorageException.class)
+				.hasMessageContaining("Maximum number of documents");
+		assertThat(uploadDir.resolve(upload.getStoredFileName())).doesNotExist();
+		assertThat(Files.readAllBytes(uploadDir.resolve(".partial").resolve(upload.getStoredFileName())))
+				.isEqualTo(CONTENT);
+		verify(documentRepository, never()).save(any());
+
+		// Once a slot is free again the same upload completes without resending data
+		when(deviceRepository.incrementDocumentCount(anyLong(), anyInt())).thenReturn(1);
+		uploadService.completeUpload(10L, uploadId, authentication);
+		assertThat(Files.readAllBytes(uploadDir.resolve(upload.getStoredFileName()))).isEqualTo(CONTENT);
+	}
+
+	private String initiate(String checksum) {
+		return uploadService.initiateUpload(10L, request(checksum), authentication).getUploadId();
+	}
+
+	private static DocumentUploadInitRequest request(String checksum) {
+		DocumentUploadInitRequest request = new DocumentUploadInitRequest();
+		request.setFileName("receipt.bin");
+		request.setFileType("application/octet-stream");
+		request.setTotalSize(CONTENT.length);
+		request.setChecksum(checksum);
+		return request;
+	}
+
+	private static ByteArrayInputStream chunk(int from, int to) {
+		return new ByteArrayInputStream(CONTENT, from, to - from);
+	}
+
+	private List<Path> partialFiles() throws IOException {
+		try (Stream<Path> files = Files.list(uploadDir.resolve(".partial"))) {
+			return files.toList();
+		}
+	}
+
+	private static String sha256(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
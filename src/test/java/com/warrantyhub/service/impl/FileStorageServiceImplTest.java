@@ -0,0 +1,122 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.service.FileStorageService.StoredFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileStorageServiceImplTest {
+
+	private static final byte[] TEXT = "Warranty terms and conditions apply. ".repeat(5_000).getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	Path tempDir;
+
+	private SimpleMeterRegistry meterRegistry;
+	private FileStorageServiceImpl fileStorageService;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		fileStorageService = new FileStorageServiceImpl(new String[]{"text/plain", " Application/JSON "}, meterRegistry);
+		ReflectionTestUtils.setField(fileStorageService, "compressionEnabled", true);
+		ReflectionTestUtils.setField(fileStorageService, "maxRatio", 0.8);
+	}
+
+	@Test
+	void compressesEligibleTextAndReadsItBack() throws IOException {
+		Path target = tempDir.resolve("notes.txt");
+
+		StoredFile stored = fileStorageService.store(new ByteArrayInputStream(TEXT), target, "text/plain; charset=UTF-8", "notes.txt");
+
+		assertThat(stored.isCompressed()).isTrue();
+		assertThat(stored.getOriginalSize()).isEqualTo(TEXT.length);
+		assertThat(stored.getStoredSize()).isEqualTo(Files.size(target)).isLessThan(TEXT.length / 10);
+		try (InputStream in = fileStorageService.openForRead(target, true)) {
+			assertThat(in.readAllBytes()).isEqualTo(TEXT);
+		}
+		assertThat(meterRegistry.get("warrantyhub.documents.storage.compressed.files").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void storesIneligibleTypesAsIs() throws IOException {
+		Path target = tempDir.resolve("receipt.pdf");
+
+		StoredFile stored = fileStorageService.store(new ByteArrayInputStream(TEXT), target, "application/pdf", "receipt.pdf");
+
+		assertThat(stored.isCompressed()).isFalse();
+		assertThat(Files.readAllBytes(target)).isEqualTo(TEXT);
+	}
+
+	@Test
+	void storesEligibleTypesAsIsWhenTheTrialBlockDoesNotShrink() throws IOException {
+		byte[] random = new byte[200_000];
+		new Random(42).nextBytes(random);
+		Path target = tempDir.resolve("data.json");
+
+		StoredFile stored = fileStorageService.store(new ByteArrayInputStream(random), target, "application/json", "data.json");
+
+		assertThat(stored.isCompressed()).isFalse();
+		assertThat(stored.getStoredSize()).isEqualTo(random.length);
+		assertThat(Files.readAllBytes(target)).isEqualTo(random);
+	}
+
+	@Test
+	void storesNothingCompressedWhenDisabled() throws IOException {
+		ReflectionTestUtils.setField(fileStorageService, "compressionEnabled", false);
+		Path target = tempDir.resolve("notes.txt");
+
+		StoredFile stored = fileStorageService.store(new ByteArrayInputStream(TEXT), target, "text/plain", "notes.txt");
+
+		assertThat(stored.isCompressed()).isFalse();
+		assertThat(Files.readAllBytes(target)).isEqualTo(TEXT);
+	}
+
+	@Test
+	void storeFileCompressesAndDeletesTheSource() throws IOException {
+		Path source = Files.write(tempDir.resolve("upload.part"), TEXT);
+		Path target = tempDir.resolve("notes.txt");
+
+		StoredFile stored = fileStorageService.storeFile(source, target, "text/plain", "notes.txt");
+
+		assertThat(stored.isCompressed()).isTrue();
+		assertThat(source).doesNotExist();
+		try (InputStream in = fileStorageService.openForRead(target, true)) {
+			assertThat(in.readAllBytes()).isEqualTo(TEXT);
+		}
+	}
+
+	@Test
+	void storeFileMovesFilesThatAreNotCompressed() throws IOException {
+		byte[] random = new byte[100_000];
+		new Random(7).nextBytes(random);
+		Path source = Files.write(tempDir.resolve("upload.part"), random);
+		Object sourceKey = Files.readAttributes(source, BasicFileAttributes.class).fileKey();
+		Path target = tempDir.resolve("data.json");
+
+		StoredFile stored = fileStorageService.storeFile(source, target, "application/json", "data.json");
+
+		assertThat(stored.isCompressed()).isFalse();
+		assertThat(stored.getOriginalSize()).isEqualTo(random.length);
+		assertThat(source).doesNotExist();
+		assertThat(Files.readAllBytes(target)).isEqualTo(random);
+		// A move keeps the same file rather than writing a copy
+		if (sourceKey != null) {
+			assertThat(Files.readAttributes(target, BasicFileAttributes.class).fileKey())
+					.isEqualTo(sourceKey);
+		}
+	}
+}
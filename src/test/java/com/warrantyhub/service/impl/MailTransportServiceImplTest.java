@@ -0,0 +1,121 @@
+package com.warrantyhub.service.impl;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MailTransportServiceImplTest {
+
+	@RegisterExtension
+	static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	private SimpleMeterRegistry meterRegistry;
+	private JavaMailSenderImpl mailSender;
+	private MailTransportServiceImpl transportService;
+
+	@BeforeEach
+	void setUp() {
+		mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("localhost");
+		mailSender.setPort(greenMail.getSmtp().getPort());
+		transportService = newTransportService(500);
+	}
+
+	@AfterEach
+	void tearDown() {
+		transportService.closeAll();
+	}
+
+	@Test
+	void sendsBatchOverOnePooledConnection() throws Exception {
+		Map<MimeMessage, Exception> failures = transportService.sendBatch(messages(3));
+
+		assertThat(failures).isEmpty();
+		assertThat(greenMail.getReceivedMessages()).hasSize(3);
+		assertThat(idleConnections()).isEqualTo(1.0);
+
+		assertThat(transportService.sendBatch(messages(2))).isEmpty();
+		assertThat(greenMail.getReceivedMessages()).hasSize(5);
+		assertThat(idleConnections()).isEqualTo(1.0);
+		assertThat(meterRegistry.get("warrantyhub.mail.send.latency").timer().count()).isEqualTo(5);
+	}
+
+	@Test
+	void closesConnectionAfterMaxMessages() throws Exception {
+		transportService.closeAll();
+		transportService = newTransportService(2);
+
+		assertThat(transportService.sendBatch(messages(2))).isEmpty();
+
+		assertThat(greenMail.getReceivedMessages()).hasSize(2);
+		assertThat(idleConnections()).isZero();
+	}
+
+	@Test
+	void failsWholeBatchWhenServerIsUnreachable() throws Exception {
+		mailSender.setPort(greenMail.getSmtp().getPort() + 1);
+		List<MimeMessage> messages = messages(2);
+
+		Map<MimeMessage, Exception> failures = transportService.sendBatch(messages);
+
+		assertThat(failures).containsOnlyKeys(messages.toArray(new MimeMessage[0]));
+		assertThat(failures.values()).allMatch(MessagingException.class::isInstance);
+		assertThat(idleConnections()).isZero();
+	}
+
+	@Test
+	void rateLimitsPerRecipientDomain() {
+		for (int i = 0; i < 2; i++) {
+			assertThat(transportService.reserveSendSlot("user" + i + "@slow.example")).isZero();
+		}
+		Duration wait = transportService.reserveSendSlot("user3@SLOW.example");
+
+		assertThat(wait).isPositive().isLessThanOrEqualTo(Duration.ofMillis(500));
+		assertThat(transportService.reserveSendSlot("user@other.example")).isZero();
+	}
+
+	private MailTransportServiceImpl newTransportService(int maxMessagesPerConnection) {
+		meterRegistry = new SimpleMeterRegistry();
+		MailTransportServiceImpl service = new MailTransportServiceImpl(mailSender, meterRegistry, 2,
+				new String[] {"slow.example:2"});
+		ReflectionTestUtils.setField(service, "borrowTimeoutMs", 1000L);
+		ReflectionTestUtils.setField(service, "maxIdleSeconds", 60L);
+		ReflectionTestUtils.setField(service, "maxMessagesPerConnection", maxMessagesPerConnection);
+		ReflectionTestUtils.setField(service, "defaultRatePerSecond", 5.0);
+		return service;
+	}
+
+	private List<MimeMessage> messages(int count) throws MessagingException {
+		List<MimeMessage> messages = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			MimeMessage message = transportService.createMimeMessage();
+			message.setFrom(new InternetAddress("no-reply@warrantyhub.local"));
+			message.setRecipient(Message.RecipientType.TO, new InternetAddress("user" + i + "@example.com"));
+			message.setSubject("Message " + i);
+			message.setText("Body " + i);
+			messages.add(message);
+		}
+		return messages;
+	}
+
+	private double idleConnections() {
+		return meterRegistry.get("warrantyhub.mail.transport.idle").gauge().value();
+	}
+}
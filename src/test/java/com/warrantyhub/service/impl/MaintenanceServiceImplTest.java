@@ -0,0 +1,226 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.config.AppConfig;
+import com.warrantyhub.dto.request.MaintenanceRecordRequest;
+import com.warrantyhub.dto.response.DeviceDTO;
+import com.warrantyhub.dto.response.MaintenanceRecordDTO;
+import com.warrantyhub.dto.response.PartUsageDTO;
+import com.warrantyhub.model.Device;
+import com.warrantyhub.model.Part;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.DeviceRepository;
+import com.warrantyhub.repository.MaintenanceRecordRepository;
+import com.warrantyhub.repository.PartRepository;
+import com.warrantyhub.repository.UserRepository;
+import com.warrantyhub.service.DeviceSearchIndex;
+import com.warrantyhub.service.DeviceService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.warrantyhub.service.impl.MaintenanceServiceImplTest$RecordingStatementInspector")
+@ActiveProfiles("test")
+@Import({MaintenanceServiceImpl.class, DeviceServiceImpl.class, AppConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MaintenanceServiceImplTest {
+
+	@Autowired
+	private MaintenanceServiceImpl maintenanceService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@MockBean
+	private DeviceSearchIndex deviceSearchIndex;
+
+	private Long deviceId;
+	private Long otherDeviceId;
+
+	@BeforeEach
+	void setUp() {
+		deviceId = new TransactionTemplate(transactionManager).execute(status -> {
+			entityManager.createNativeQuery("delete from maintenance_record_parts").executeUpdate();
+			entityManager.createQuery("delete from MaintenanceRecord").executeUpdate();
+			entityManager.createQuery("delete from Part").executeUpdate();
+			entityManager.createQuery("delete from Device").executeUpdate();
+			entityManager.createQuery("delete from User").executeUpdate();
+
+			User owner = user("owner@example.com");
+			Device other = device(owner, "Phone");
+			otherDeviceId = other.getId();
+			device(user("someone@example.com"), "Tablet");
+			return device(owner, "Laptop").getId();
+		});
+	}
+
+	@Test
+	void keepsOneCatalogEntryPerName() {
+		DeviceDTO device = maintenanceService.addMaintenanceRecord(deviceId,
+				request(LocalDate.of(2024, 1, 10), " Battery ", "Screen", "Battery", "", null), owner());
+		maintenanceService.addMaintenanceRecord(otherDeviceId,
+				request(LocalDate.of(2024, 2, 10), "Battery", "Fan"), owner());
+
+		assertThat(device.getMaintenanceHistory()).singleElement()
+				.extracting(MaintenanceRecordDTO::getPartsReplaced)
+				.isEqualTo(List.of("Battery", "Screen"));
+		assertThat(catalog()).containsExactly("Battery", "Fan", "Screen");
+	}
+
+	@Test
+	void updatesOnlyChangedParts() {
+		DeviceDTO device = maintenanceService.addMaintenanceRecord(deviceId,
+				request(LocalDate.of(2024, 1, 10), "Battery", "Screen"), owner());
+		Long recordId = Long.valueOf(device.getMaintenanceHistory().get(0).getId());
+		RecordingStatementInspector.clear();
+
+		device = maintenanceService.updateMaintenanceRecord(deviceId, recordId,
+				request(LocalDate.of(2024, 1, 10), "Screen", "Fan"), null, owner());
+
+		assertThat(device.getMaintenanceHistory().get(0).getPartsReplaced()).containsExactlyInAnyOrder("Screen", "Fan");
+		List<String> joinTableWrites = RecordingStatementInspector.statements().stream()
+				.filter(sql -> sql.contains("maintenance_record_parts"))
+				.filter(sql -> sql.startsWith("insert") || sql.startsWith("delete"))
+				.toList();
+		assertThat(joinTableWrites).hasSize(2);
+		assertThat(joinTableWrites).anySatisfy(sql -> assertThat(sql).startsWith("delete").contains("part_id"));
+		assertThat(joinTableWrites).anySatisfy(sql -> assertThat(sql).startsWith("insert"));
+	}
+
+	@Test
+	void reportsPartUsageAcrossUsersDevices() {
+		maintenanceService.addMaintenanceRecord(deviceId, request(LocalDate.of(2024, 1, 10), "Battery", "Screen"), owner());
+		maintenanceService.addMaintenanceRecord(otherDeviceId, request(LocalDate.of(2024, 3, 5), "Battery"), owner());
+		maintenanceService.addMaintenanceRecord(deviceId, request(LocalDate.of(2024, 2, 1), "Fan"), owner());
+
+		List<PartUsageDTO> usage = maintenanceService.getPartUsage(owner());
+
+		assertThat(usage).extracting(PartUsageDTO::getName).containsExactly("Battery", "Fan", "Screen");
+		assertThat(usage.get(0).getRecordCount()).isEqualTo(2);
+		assertThat(usage.get(0).getLastReplaced()).isEqualTo(LocalDate.of(2024, 3, 5));
+		assertThat(maintenanceService.getPartUsage(
+				new UsernamePasswordAuthenticationToken("someone@example.com", null, List.of()))).isEmpty();
+	}
+
+	/**
+	 * Under REPEATABLE READ the caller's snapshot cannot see a name another request committed after
+	 * it started, so new names are inserted and read back in a transaction of their own. H2 also
+	 * checks foreign keys against the snapshot, unlike InnoDB, so the race is asserted with mocks.
+	 */
+	@Test
+	void addsAndReadsNewPartsInNewTransaction() {
+		PartRepository partRepository = mock(PartRepository.class);
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		// The insert is a no-op because a concurrent request committed the name first
+		when(partRepository.findByNameIn(any()))
+				.thenReturn(List.of())
+				.thenReturn(List.of(new Part(7L, "Battery")));
+		MaintenanceServiceImpl service = new MaintenanceServiceImpl(mock(DeviceRepository.class),
+				mock(MaintenanceRecordRepository.class), mock(UserRepository.class), partRepository,
+				mock(DeviceService.class), transactionManager);
+
+		Set<Part> parts = ReflectionTestUtils.invokeMethod(service, "resolveParts", List.of("Battery"));
+
+		assertThat(parts).extracting(Part::getId).containsExactly(7L);
+		InOrder inOrder = inOrder(transactionManager, partRepository);
+		inOrder.verify(transactionManager).getTransaction(argThat(definition ->
+				definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+		inOrder.verify(partRepository).insertIfAbsent("Battery");
+		inOrder.verify(partRepository).findByNameIn(List.of("Battery"));
+		inOrder.verify(transactionManager).commit(any());
+	}
+
+	private List<String> catalog() {
+		return new TransactionTemplate(transactionManager).execute(status -> entityManager
+				.createQuery("select p.name from Part p order by p.name", String.class)
+				.getResultList());
+	}
+
+	private User user(String email) {
+		User user = new User();
+		user.setName("User");
+		user.setEmail(email);
+		user.setEnabled(true);
+		entityManager.persist(user);
+		return user;
+	}
+
+	private Device device(User user, String name) {
+		Device device = new Device();
+		device.setName(name);
+		device.setWarrantyStatus("unknown");
+		device.setUser(user);
+		entityManager.persist(device);
+		return device;
+	}
+
+	private static MaintenanceRecordRequest request(LocalDate date, String... parts) {
+		MaintenanceRecordRequest request = new MaintenanceRecordRequest();
+		request.setDate(date);
+		request.setType("Repair");
+		request.setPartsReplaced(new ArrayList<>(Arrays.asList(parts)));
+		return request;
+	}
+
+	private static Authentication owner() {
+		return new UsernamePasswordAuthenticationToken("owner@example.com", null, List.of());
+	}
+
+	/**
+	 * Records the SQL Hibernate sends, lower-cased
+	 */
+	public static class RecordingStatementInspector implements StatementInspector {
+		private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql.trim().toLowerCase(Locale.ROOT));
+			return sql;
+		}
+
+		static void clear() {
+			STATEMENTS.clear();
+		}
+
+		static List<String> statements() {
+			synchronized (STATEMENTS) {
+				return new ArrayList<>(STATEMENTS);
+			}
+		}
+	}
+}
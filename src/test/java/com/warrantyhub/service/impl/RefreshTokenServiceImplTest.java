@@ -0,0 +1,154 @@
+package com.warrantyhub.service.impl;
+
+import com.warrantyhub.exception.UnauthorizedException;
+import com.warrantyhub.model.RefreshSession;
+import com.warrantyhub.model.User;
+import com.warrantyhub.repository.RefreshSessionRepository;
+import com.warrantyhub.repository.UserRepository;
+import com.warrantyhub.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "app.auth.sessions.max-per-user=2")
+@ActiveProfiles("test")
+@Import(RefreshTokenServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceImplTest {
+
+	@Autowired
+	private RefreshTokenServiceImpl refreshTokenService;
+
+	@Autowired
+	private RefreshSessionRepository refreshSessionRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		refreshSessionRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+		user = new User();
+		user.setName("Owner");
+		user.setEmail("owner@example.com");
+		user.setEnabled(true);
+		user = userRepository.save(user);
+	}
+
+	@Test
+	void rotationReplacesTheToken() {
+		String first = refreshTokenService.createRefreshToken(user, "phone");
+
+		RefreshTokenService.RotatedToken rotated = refreshTokenService.rotateRefreshToken(first);
+
+		assertThat(rotated.getUserId()).isEqualTo(user.getId());
+		assertThat(rotated.getEmail()).isEqualTo("owner@example.com");
+		assertThat(rotated.getRefreshToken()).isNotEqualTo(first);
+		// Rotating again goes through the cached entry the first rotation left behind
+		assertThat(refreshTokenService.rotateRefreshToken(rotated.getRefreshToken()).getUserId())
+				.isEqualTo(user.getId());
+	}
+
+	@Test
+	void reusedTokenRevokesTheSession() {
+		String first = refreshTokenService.createRefreshToken(user, "phone");
+		String second = refreshTokenService.rotateRefreshToken(first).getRefreshToken();
+
+		assertThatThrownBy(() -> refreshTokenService.rotateRefreshToken(first))
+				.isInstanceOf(UnauthorizedException.class);
+
+		// The revocation is kept although the call failed
+		assertThat(refreshSessionRepository.count()).isZero();
+		assertThatThrownBy(() -> refreshTokenService.rotateRefreshToken(second))
+				.isInstanceOf(UnauthorizedException.class);
+	}
+
+	@Test
+	void concurrentRefreshesWithOneTokenLetOnlyOneRotate() throws Exception {
+		String token = refreshTokenService.createRefreshToken(user, "phone");
+
+		List<Object> outcomes = runConcurrently(2, () -> {
+			try {
+				return refreshTokenService.rotateRefreshToken(token);
+			} catch (UnauthorizedException ex) {
+				return ex;
+			}
+		});
+
+		assertThat(outcomes).filteredOn(RefreshTokenService.RotatedToken.class::isInstance).hasSize(1);
+		assertThat(outcomes).filteredOn(UnauthorizedException.class::isInstance).hasSize(1);
+		// The loser presented a token that had just been rotated away, which reads as reuse
+		assertThat(refreshSessionRepository.count()).isZero();
+	}
+
+	@Test
+	void concurrentFirstLoginsOnOneDeviceShareTheSession() throws Exception {
+		List<Object> tokens = runConcurrently(4, () -> refreshTokenService.createRefreshToken(user, "phone"));
+
+		assertThat(tokens).hasSize(4).allMatch(String.class::isInstance);
+		assertThat(refreshSessionRepository.findAll()).singleElement()
+				.extracting(RefreshSession::getDeviceId).isEqualTo("phone");
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedSessionBeyondTheLimit() throws InterruptedException {
+		String phone = refreshTokenService.createRefreshToken(user, "phone");
+		Thread.sleep(5);
+		refreshTokenService.createRefreshToken(user, "laptop");
+		Thread.sleep(5);
+		// Using the phone session makes the laptop the least recently used one
+		refreshTokenService.rotateRefreshToken(phone);
+		Thread.sleep(5);
+
+		refreshTokenService.createRefreshToken(user, "tablet");
+
+		assertThat(refreshSessionRepository.findAll()).extracting(RefreshSession::getDeviceId)
+				.containsExactlyInAnyOrder("phone", "tablet");
+	}
+
+	private static List<Object> runConcurrently(int callers, Callable<Object> call) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<Object>> futures = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return call.call();
+				}));
+			}
+			start.countDown();
+			List<Object> outcomes = new ArrayList<>();
+			for (Future<Object> future : futures) {
+				try {
+					outcomes.add(future.get());
+				} catch (ExecutionException ex) {
+					outcomes.add(ex.getCause());
+				}
+			}
+			return outcomes;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.warrantyhub.util;
+
+import com.warrantyhub.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EntityTagsTest {
+
+	@Test
+	void formatsVersionAsStrongTag() {
+		assertThat(EntityTags.format(3L)).isEqualTo("\"3\"");
+	}
+
+	@Test
+	void acceptsAnyVersionWhenHeaderIsAbsentOrWildcard() {
+		assertThat(EntityTags.parseIfMatch(null)).isNull();
+		assertThat(EntityTags.parseIfMatch("  ")).isNull();
+		assertThat(EntityTags.parseIfMatch(" * ")).isNull();
+	}
+
+	@Test
+	void parsesListOfTags() {
+		assertThat(EntityTags.parseIfMatch("\"3\"")).containsExactly(3L);
+		assertThat(EntityTags.parseIfMatch("\"3\", \"5\" ,\"8\"")).containsExactlyInAnyOrder(3L, 5L, 8L);
+	}
+
+	@Test
+	void ignoresWeakAndForeignTags() {
+		assertThat(EntityTags.parseIfMatch("W/\"3\", \"abc\", \"4\"")).containsExactly(4L);
+		assertThat(EntityTags.parseIfMatch("W/\"3\"")).isEmpty();
+		assertThat(EntityTags.parseIfMatch("\"\"")).isEmpty();
+	}
+
+	@Test
+	void rejectsHeaderThatIsNotListOfTags() {
+		assertThatThrownBy(() -> EntityTags.parseIfMatch("3")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> EntityTags.parseIfMatch("\"3\" \"4\"")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> EntityTags.parseIfMatch("\"3")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> EntityTags.parseIfMatch("\"3\", *")).isInstanceOf(BadRequestException.class);
+	}
+}
@@ -0,0 +1,78 @@
+package com.warrantyhub.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileUtilsTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void recognizesAlreadyCompressedFormatsByTypeOrExtension() {
+		assertThat(FileUtils.isAlreadyCompressed("application/pdf", "receipt.pdf")).isTrue();
+		assertThat(FileUtils.isAlreadyCompressed("IMAGE/JPEG", "photo")).isTrue();
+		assertThat(FileUtils.isAlreadyCompressed("video/mp4", "clip")).isTrue();
+		assertThat(FileUtils.isAlreadyCompressed(
+				"application/vnd.openxmlformats-officedocument.wordprocessingml.document", "manual")).isTrue();
+		assertThat(FileUtils.isAlreadyCompressed("application/octet-stream", "archive.ZIP")).isTrue();
+		assertThat(FileUtils.isAlreadyCompressed(null, "manual.docx")).isTrue();
+
+		assertThat(FileUtils.isAlreadyCompressed("text/plain", "notes.txt")).isFalse();
+		assertThat(FileUtils.isAlreadyCompressed("image/tiff", "scan.tiff")).isFalse();
+		assertThat(FileUtils.isAlreadyCompressed(null, "no-extension")).isFalse();
+	}
+
+	@Test
+	void toSafeEntryNameStripsPathsAndReservedCharacters() {
+		assertThat(FileUtils.toSafeEntryName("../../etc/passwd")).isEqualTo("passwd");
+		assertThat(FileUtils.toSafeEntryName("C:\\docs\\receipt.pdf")).isEqualTo("receipt.pdf");
+		assertThat(FileUtils.toSafeEntryName("invoice:2024?.pdf")).isEqualTo("invoice_2024_.pdf");
+		assertThat(FileUtils.toSafeEntryName(null)).isEqualTo("document");
+		assertThat(FileUtils.toSafeEntryName("dir/")).isEqualTo("document");
+	}
+
+	@Test
+	void storedAndDeflatedEntriesRoundTrip() throws IOException {
+		Path stored = Files.writeString(tempDir.resolve("photo.jpg"), "jpeg bytes");
+		Path deflated = Files.writeString(tempDir.resolve("notes.txt"), "plain text ".repeat(100));
+
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+			FileUtils.writeZipEntry(zip, "photo.jpg", stored, true);
+			FileUtils.writeZipEntry(zip, "notes.txt", deflated, false);
+			FileUtils.writeZipEntry(zip, "inflated.txt",
+					new ByteArrayInputStream("from a stream".getBytes(StandardCharsets.UTF_8)));
+		}
+
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+			ZipEntry entry = zip.getNextEntry();
+			assertThat(entry.getName()).isEqualTo("photo.jpg");
+			assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+			assertThat(new String(zip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("jpeg bytes");
+
+			entry = zip.getNextEntry();
+			assertThat(entry.getName()).isEqualTo("notes.txt");
+			assertThat(entry.getMethod()).isEqualTo(ZipEntry.DEFLATED);
+			assertThat(new String(zip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("plain text ".repeat(100));
+
+			entry = zip.getNextEntry();
+			assertThat(entry.getName()).isEqualTo("inflated.txt");
+			assertThat(new String(zip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("from a stream");
+
+			assertThat(zip.getNextEntry()).isNull();
+		}
+	}
+}
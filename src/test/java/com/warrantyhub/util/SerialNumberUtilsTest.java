@@ -0,0 +1,27 @@
+package com.warrantyhub.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerialNumberUtilsTest {
+
+	@Test
+	void dropsSeparatorsAndUpperCases() {
+		assertThat(SerialNumberUtils.normalize("ab-123 x")).isEqualTo("AB123X");
+		assertThat(SerialNumberUtils.normalize(" AB_123/x.")).isEqualTo("AB123X");
+		assertThat(SerialNumberUtils.normalize("AB123X")).isEqualTo("AB123X");
+	}
+
+	@Test
+	void keepsLettersAndDigitsOfOtherScripts() {
+		assertThat(SerialNumberUtils.normalize("ßn-٣2")).isEqualTo("SSN٣2");
+	}
+
+	@Test
+	void returnsNullWhenNothingIsLeft() {
+		assertThat(SerialNumberUtils.normalize(null)).isNull();
+		assertThat(SerialNumberUtils.normalize("")).isNull();
+		assertThat(SerialNumberUtils.normalize(" - / ")).isNull();
+	}
+}